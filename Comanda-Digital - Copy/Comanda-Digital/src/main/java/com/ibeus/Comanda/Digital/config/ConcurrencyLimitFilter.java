@@ -0,0 +1,89 @@
+package com.ibeus.Comanda.Digital.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limita as requisições simultâneas a um múltiplo do pool JDBC (perfil virtual-threads).
+ *
+ * Sem o teto de threads do Tomcat, o excedente espera aqui numa fila justa e recebe
+ * 503 com Retry-After se não houver vaga a tempo, em vez de esperar conexão no Hikari.
+ */
+@Component
+@ConditionalOnProperty(name = "concurrency.limit.enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${concurrency.limit.per-connection:2}")
+    private int perConnection;
+
+    @Value("${concurrency.limit.queue-timeout-ms:2000}")
+    private long queueTimeoutMs;
+
+    private Semaphore permits;
+
+    @PostConstruct
+    void init() throws SQLException {
+        int poolSize = dataSource.isWrapperFor(HikariDataSource.class)
+            ? dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize()
+            : 10;
+        int limit = Math.max(1, poolSize * perConnection);
+        permits = new Semaphore(limit, true);
+        log.info("Limite de concorrência: {} requisições (pool JDBC {})", limit, poolSize);
+    }
+
+    // Scrape de métricas não disputa vaga com o tráfego da aplicação
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getServletPath().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        if (!acquired) {
+            response.setHeader("Retry-After", "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Servidor ocupado, tente novamente");
+            return;
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.ibeus.Comanda.Digital.controller;
 import com.ibeus.Comanda.Digital.model.Order;
 import com.ibeus.Comanda.Digital.service.OrderService;
 import com.ibeus.Comanda.Digital.dto.StatusUpdateRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,6 +17,8 @@ import java.util.Optional;
 @CrossOrigin(origins = "http://localhost:4200")
 public class OrderController {
     
+    private static final Logger log = LoggerFactory.getLogger(OrderController.class);
+    
     @Autowired
     private OrderService orderService;
     
@@ -47,13 +51,11 @@ public class OrderController {
     @PatchMapping("/{id}/status")
     public Order updateOrderStatus(@PathVariable Long id, @RequestBody StatusUpdateRequest statusUpdate) {
         try {
-            System.out.println("StatusUpdate recebido: " + statusUpdate);
             String statusString = statusUpdate.getStatus();
-            System.out.println("Status string extraído: " + statusString);
             Order.OrderStatus orderStatus = Order.OrderStatus.valueOf(statusString);
             return orderService.updateStatus(id, orderStatus);
         } catch (IllegalArgumentException e) {
-            System.err.println("Erro ao converter status: " + e.getMessage());
+            log.debug("Status inválido para o pedido {}: {}", id, statusUpdate);
             throw e;
         }
     }
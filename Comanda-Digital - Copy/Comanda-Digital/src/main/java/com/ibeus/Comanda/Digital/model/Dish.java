@@ -9,7 +9,8 @@ import lombok.Data;
 public class Dish {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "dishes_seq")
+    @SequenceGenerator(name = "dishes_seq", sequenceName = "dishes_seq", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -14,7 +14,8 @@ import java.util.List;
 public class KitchenOrder {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "kitchen_orders_seq")
+    @SequenceGenerator(name = "kitchen_orders_seq", sequenceName = "kitchen_orders_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "order_id", nullable = false)
@@ -10,7 +10,8 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 public class KitchenOrderItem {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "kitchen_order_items_seq")
+    @SequenceGenerator(name = "kitchen_order_items_seq", sequenceName = "kitchen_order_items_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "dish_id", nullable = false)
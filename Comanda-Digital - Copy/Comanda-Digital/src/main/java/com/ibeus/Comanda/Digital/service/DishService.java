@@ -1,5 +1,6 @@
 package com.ibeus.Comanda.Digital.service;
 
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import com.ibeus.Comanda.Digital.model.Dish;
@@ -8,6 +9,7 @@ import com.ibeus.Comanda.Digital.repository.DishRepository;
 import java.util.List;
 
 @Service
+@Timed("comanda.service")
 public class DishService {
 
     @Autowired
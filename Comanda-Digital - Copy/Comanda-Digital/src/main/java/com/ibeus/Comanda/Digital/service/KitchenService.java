@@ -3,6 +3,7 @@ package com.ibeus.Comanda.Digital.service;
 import com.ibeus.Comanda.Digital.model.KitchenOrder;
 import com.ibeus.Comanda.Digital.model.KitchenOrderItem;
 import com.ibeus.Comanda.Digital.repository.KitchenOrderRepository;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,6 +14,7 @@ import java.util.Optional;
 
 @Service
 @Transactional
+@Timed("comanda.service")
 public class KitchenService {
     
     @Autowired
@@ -0,0 +1,84 @@
+-- Esquema inicial, igual ao que o Hibernate gerava com ddl-auto=update.
+-- Bancos já existentes são marcados nesta versão (spring.flyway.baseline-on-migrate) e seguem do V2.
+
+-- O MySQL não tem sequências: os @SequenceGenerator usam tabelas *_seq (allocationSize = 50)
+create table dishes_seq (next_val bigint) engine=InnoDB;
+insert into dishes_seq values (1);
+create table orders_seq (next_val bigint) engine=InnoDB;
+insert into orders_seq values (1);
+create table order_items_seq (next_val bigint) engine=InnoDB;
+insert into order_items_seq values (1);
+create table kitchen_orders_seq (next_val bigint) engine=InnoDB;
+insert into kitchen_orders_seq values (1);
+create table kitchen_order_items_seq (next_val bigint) engine=InnoDB;
+insert into kitchen_order_items_seq values (1);
+
+create table dishes (
+    id bigint not null,
+    name varchar(255),
+    description varchar(255),
+    price float(53),
+    primary key (id)
+) engine=InnoDB;
+
+create table orders (
+    id bigint not null,
+    customer_name varchar(255) not null,
+    customer_phone varchar(255),
+    table_number integer,
+    delivery_address varchar(255),
+    status enum ('NEW','PREPARING','READY','DELIVERED','PAID','CANCELLED') not null,
+    total_amount float(53) not null,
+    delivery_fee float(53),
+    notes varchar(255),
+    created_at datetime(6),
+    updated_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table order_items (
+    id bigint not null,
+    order_id bigint not null,
+    dish_id bigint not null,
+    dish_name varchar(255) not null,
+    quantity integer not null,
+    unit_price float(53) not null,
+    total_price float(53) not null,
+    notes varchar(255),
+    primary key (id),
+    constraint fk_order_items_order foreign key (order_id) references orders (id),
+    constraint fk_order_items_dish foreign key (dish_id) references dishes (id)
+) engine=InnoDB;
+
+create table kitchen_orders (
+    id bigint not null,
+    order_id bigint not null,
+    table_number integer not null,
+    customer_name varchar(255),
+    status enum ('NEW','PREPARING','READY','SERVED','CANCELLED') not null,
+    total_amount float(53) not null,
+    estimated_time integer,
+    priority integer,
+    notes varchar(255),
+    created_at datetime(6),
+    updated_at datetime(6),
+    started_at datetime(6),
+    ready_at datetime(6),
+    primary key (id)
+) engine=InnoDB;
+
+create table kitchen_order_items (
+    id bigint not null,
+    kitchen_order_id bigint,
+    dish_id bigint not null,
+    dish_name varchar(255) not null,
+    dish_description varchar(255),
+    quantity integer not null,
+    unit_price float(53) not null,
+    total_price float(53) not null,
+    preparation_status enum ('PENDING','IN_PROGRESS','READY','SERVED') not null,
+    preparation_notes varchar(255),
+    estimated_prep_time integer,
+    primary key (id),
+    constraint fk_kitchen_order_items_kitchen_order foreign key (kitchen_order_id) references kitchen_orders (id)
+) engine=InnoDB;
@@ -0,0 +1,15 @@
+-- Índices para as consultas dos repositórios; antes só existiam as chaves primárias e estrangeiras.
+
+-- findByStatus, findByStatusIn, findActiveOrders (status + ORDER BY created_at)
+create index idx_orders_status_created_at on orders (status, created_at);
+-- findByTableNumber, findActiveOrdersByTable
+create index idx_orders_table_status on orders (table_number, status);
+
+-- findNewOrders, findPreparingOrders, findActiveKitchenOrders, findByStatusIn (ORDER BY priority, created_at)
+create index idx_kitchen_orders_status_priority on kitchen_orders (status, priority, created_at);
+-- findReadyOrders
+create index idx_kitchen_orders_status_created_at on kitchen_orders (status, created_at);
+-- findByTableNumber, findActiveOrdersByTable
+create index idx_kitchen_orders_table_status on kitchen_orders (table_number, status);
+-- findByOrderId (sincronização pedido -> cozinha)
+create index idx_kitchen_orders_order_id on kitchen_orders (order_id);
@@ -0,0 +1,26 @@
+-- Bancos anteriores ao Flyway (criados pelo ddl-auto, ids AUTO_INCREMENT) entram pelo baseline
+-- como V1 e nunca rodam o V1__initial_schema: as tabelas *_seq não existem neles. Cria o que
+-- faltar e só então alinha o próximo bloco acima do maior id. Em bancos criados pelo V1 só os UPDATEs têm efeito.
+--
+-- Conferir a subida a partir do baseline: num MySQL vazio, criar o esquema antigo com
+-- spring.jpa.hibernate.ddl-auto=update (sem Flyway) e cadastrar alguns pratos e pedidos; depois
+-- subir com a configuração atual. flyway_schema_history deve ter <<Flyway Baseline>> 1, V2 e V3,
+-- e um novo pedido deve receber id acima dos existentes.
+CREATE TABLE IF NOT EXISTS dishes_seq (next_val bigint) engine=InnoDB;
+CREATE TABLE IF NOT EXISTS orders_seq (next_val bigint) engine=InnoDB;
+CREATE TABLE IF NOT EXISTS order_items_seq (next_val bigint) engine=InnoDB;
+CREATE TABLE IF NOT EXISTS kitchen_orders_seq (next_val bigint) engine=InnoDB;
+CREATE TABLE IF NOT EXISTS kitchen_order_items_seq (next_val bigint) engine=InnoDB;
+
+INSERT INTO dishes_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM dishes_seq);
+INSERT INTO orders_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM orders_seq);
+INSERT INTO order_items_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM order_items_seq);
+INSERT INTO kitchen_orders_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM kitchen_orders_seq);
+INSERT INTO kitchen_order_items_seq (next_val) SELECT 1 FROM DUAL WHERE NOT EXISTS (SELECT 1 FROM kitchen_order_items_seq);
+
+-- O próximo bloco (allocationSize = 50) precisa começar acima do maior id já gravado
+UPDATE orders_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 51 FROM orders));
+UPDATE order_items_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 51 FROM order_items));
+UPDATE kitchen_orders_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 51 FROM kitchen_orders));
+UPDATE kitchen_order_items_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 51 FROM kitchen_order_items));
+UPDATE dishes_seq SET next_val = GREATEST(next_val, (SELECT COALESCE(MAX(id), 0) + 51 FROM dishes));
@@ -0,0 +1,23 @@
+#!/bin/sh
+# Instala os dois serviços, roda os benchmarks JMH e compara com baseline.json.
+#
+#   ./run.sh                       roda tudo e falha se algo piorar mais que REGRESSION_THRESHOLD (0.10)
+#   ./run.sh -p items=50           argumentos extras vão para o JMH
+#   UPDATE_BASELINE=1 ./run.sh     grava o resultado como nova linha de base
+set -e
+cd "$(dirname "$0")"
+
+mvn -B -q -f ../dish-app-Docker/backend/pom.xml install -DskipTests
+mvn -B -q -f "../Comanda-Digital - Copy/Comanda-Digital/pom.xml" install -DskipTests
+mvn -B -q package
+
+java -jar target/benchmarks.jar -rf json -rff target/jmh-result.json "$@"
+
+if [ "$UPDATE_BASELINE" = "1" ]; then
+    cp target/jmh-result.json baseline.json
+    echo "Linha de base atualizada em baseline.json"
+    exit 0
+fi
+
+java -cp target/benchmarks.jar com.restaurant.benchmarks.RegressionCheck \
+    baseline.json target/jmh-result.json "${REGRESSION_THRESHOLD:-0.10}"
@@ -0,0 +1,46 @@
+package com.restaurant.benchmarks;
+
+import com.ibeus.Comanda.Digital.model.Dish;
+import com.ibeus.Comanda.Digital.model.KitchenOrderItem;
+import com.ibeus.Comanda.Digital.model.OrderItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cópia de um item de pedido do Comanda-Digital para o item da cozinha (KitchenOrderItem(OrderItem)).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComandaKitchenItemBenchmark {
+
+    private OrderItem orderItem;
+
+    @Setup
+    public void setUp() {
+        Dish dish = new Dish();
+        dish.setId(42L);
+        dish.setName("Feijoada");
+        dish.setDescription("Feijoada completa com arroz, couve e farofa");
+        dish.setPrice(54.90);
+        orderItem = new OrderItem(dish, 2, "Sem pimenta");
+    }
+
+    @Benchmark
+    public KitchenOrderItem copyConstructor() {
+        return new KitchenOrderItem(orderItem);
+    }
+}
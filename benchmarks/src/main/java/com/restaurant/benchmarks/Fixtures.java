@@ -0,0 +1,50 @@
+package com.restaurant.benchmarks;
+
+import com.restaurant.order.model.KitchenOrder;
+import com.restaurant.order.model.KitchenOrderItem;
+import com.restaurant.order.model.Money;
+import com.restaurant.order.model.Order;
+import com.restaurant.order.model.OrderItem;
+import com.restaurant.order.model.OrderStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pedidos e comandas de exemplo com N itens, montados como o OrderService monta:
+ * pratos distintos, quantidades e preços variados, totais já calculados.
+ */
+final class Fixtures {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 5, 10, 12, 30);
+
+    private Fixtures() {}
+
+    static Order order(int items) {
+        Order order = new Order(7, "Mesa 7", OrderStatus.PREPARING);
+        order.setId(1000L + items);
+        order.setCustomerPhone("11999990000");
+        order.setCreatedAt(CREATED_AT);
+        order.setUpdatedAt(CREATED_AT.plusMinutes(5));
+        for (int i = 0; i < items; i++) {
+            order.addItem(new OrderItem((long) i + 1, "Prato " + (i + 1), 1 + i % 3, price(i)));
+        }
+        order.calculateTotal();
+        return order;
+    }
+
+    static KitchenOrder kitchenOrder(int items) {
+        KitchenOrder kitchenOrder = new KitchenOrder(1000L + items, 7, "Mesa 7", OrderStatus.PREPARING);
+        kitchenOrder.setCreatedAt(CREATED_AT);
+        kitchenOrder.setUpdatedAt(CREATED_AT.plusMinutes(5));
+        for (int i = 0; i < items; i++) {
+            kitchenOrder.addItem(new KitchenOrderItem((long) i + 1, "Prato " + (i + 1), "Descrição do prato " + (i + 1),
+                1 + i % 3, price(i), 10 + i % 20));
+        }
+        kitchenOrder.calculateTotal();
+        return kitchenOrder;
+    }
+
+    private static Money price(int i) {
+        return Money.ofCents(1_990 + 250L * (i % 12));
+    }
+}
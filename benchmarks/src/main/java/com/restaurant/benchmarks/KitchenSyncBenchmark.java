@@ -0,0 +1,55 @@
+package com.restaurant.benchmarks;
+
+import com.restaurant.order.model.KitchenOrder;
+import com.restaurant.order.model.Order;
+import com.restaurant.order.service.KitchenOrderSynchronizer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapeamento Order -> KitchenOrder feito em syncOrderToKitchen: criação da comanda
+ * para um pedido novo e comparação item a item quando o pedido já tem comanda.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KitchenSyncBenchmark {
+
+    @Param({"1", "10", "50"})
+    int items;
+
+    private final KitchenOrderSynchronizer synchronizer = new KitchenOrderSynchronizer();
+    private Order order;
+    private KitchenOrder existing;
+
+    @Setup
+    public void setUp() {
+        order = Fixtures.order(items);
+        existing = synchronizer.toKitchenOrder(order);
+    }
+
+    @Benchmark
+    public KitchenOrder toKitchenOrder() {
+        return synchronizer.toKitchenOrder(order);
+    }
+
+    // Pedido sem alterações: o caminho mais comum (mudança de status) e que não muta a comanda
+    @Benchmark
+    public KitchenOrderSynchronizer.SyncResult mergeUnchanged() {
+        return synchronizer.merge(order, existing);
+    }
+}
@@ -0,0 +1,98 @@
+package com.restaurant.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compara um resultado JMH em JSON (-rf json) com a linha de base versionada.
+ *
+ * Uso: RegressionCheck &lt;baseline.json&gt; &lt;atual.json&gt; [limite, padrão 0.10]
+ *
+ * Cada benchmark é identificado pelo nome e pelos @Param. Só conta como regressão a piora
+ * acima do limite que também fica fora das margens de erro somadas das duas medições, para
+ * que ruído de máquina não reprove o build. Termina com código 1 se houver regressão.
+ */
+public class RegressionCheck {
+
+    private static final double DEFAULT_THRESHOLD = 0.10;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: RegressionCheck <baseline.json> <atual.json> [limite]");
+            System.exit(2);
+        }
+        Path baselinePath = Path.of(args[0]);
+        Path currentPath = Path.of(args[1]);
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD;
+
+        if (!Files.exists(baselinePath)) {
+            System.out.println("Sem linha de base em " + baselinePath + "; nada a comparar. "
+                + "Para criá-la, copie " + currentPath + " para " + baselinePath + ".");
+            return;
+        }
+
+        Map<String, Score> baseline = read(baselinePath);
+        Map<String, Score> current = read(currentPath);
+        List<String> regressions = new ArrayList<>();
+
+        System.out.printf("%-70s %14s %14s %9s%n", "benchmark", "base", "atual", "variação");
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            Score now = entry.getValue();
+            Score before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.3f %9s%n", entry.getKey(), "-", now.value(), "novo");
+                continue;
+            }
+
+            double change = (now.value() - before.value()) / before.value();
+            // Em thrpt maior é melhor; em avgt, sample e ss menor é melhor
+            double worsening = now.higherIsBetter() ? -change : change;
+            double distance = Math.abs(now.value() - before.value());
+            boolean regressed = worsening > threshold && distance > now.error() + before.error();
+
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%%%s%n", entry.getKey(), before.value(), now.value(),
+                change * 100, regressed ? "  REGRESSÃO" : "");
+            if (regressed) {
+                regressions.add(entry.getKey());
+            }
+        }
+
+        if (!regressions.isEmpty()) {
+            System.out.printf("%n%d benchmark(s) pioraram mais de %.0f%%: %s%n", regressions.size(), threshold * 100,
+                regressions);
+            System.exit(1);
+        }
+        System.out.printf("%nNenhuma regressão acima de %.0f%%%n", threshold * 100);
+    }
+
+    private static Map<String, Score> read(Path path) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(path.toFile())) {
+            JsonNode metric = result.path("primaryMetric");
+            double error = metric.path("scoreError").asDouble(0);
+            scores.put(key(result), new Score(
+                metric.path("score").asDouble(),
+                Double.isNaN(error) ? 0 : error,
+                "thrpt".equals(result.path("mode").asText())));
+        }
+        return scores;
+    }
+
+    private static String key(JsonNode result) {
+        String name = result.path("benchmark").asText().replace("com.restaurant.benchmarks.", "");
+        Map<String, String> params = new TreeMap<>();
+        result.path("params").fields().forEachRemaining(field -> params.put(field.getKey(), field.getValue().asText()));
+        return params.isEmpty() ? name : name + params;
+    }
+
+    private record Score(double value, double error, boolean higherIsBetter) {}
+}
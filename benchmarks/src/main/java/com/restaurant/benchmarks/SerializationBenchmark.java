@@ -0,0 +1,62 @@
+package com.restaurant.benchmarks;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.restaurant.order.model.KitchenOrder;
+import com.restaurant.order.model.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialização JSON de Order e KitchenOrder como as respostas REST e o feed SSE fazem,
+ * com o ObjectMapper configurado como o do Spring Boot (JavaTimeModule, datas ISO).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"1", "10", "50"})
+    int items;
+
+    private ObjectWriter writer;
+    private Order order;
+    private KitchenOrder kitchenOrder;
+
+    @Setup
+    public void setUp() {
+        writer = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build()
+            .writer();
+        order = Fixtures.order(items);
+        kitchenOrder = Fixtures.kitchenOrder(items);
+    }
+
+    @Benchmark
+    public byte[] serializeOrder() throws JsonProcessingException {
+        return writer.writeValueAsBytes(order);
+    }
+
+    @Benchmark
+    public byte[] serializeKitchenOrder() throws JsonProcessingException {
+        return writer.writeValueAsBytes(kitchenOrder);
+    }
+}
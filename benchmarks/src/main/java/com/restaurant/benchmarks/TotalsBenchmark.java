@@ -0,0 +1,53 @@
+package com.restaurant.benchmarks;
+
+import com.restaurant.order.model.KitchenOrder;
+import com.restaurant.order.model.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recalculo do total de pedido e de comanda, chamado a cada item adicionado ou removido.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TotalsBenchmark {
+
+    @Param({"1", "10", "50"})
+    int items;
+
+    private Order order;
+    private KitchenOrder kitchenOrder;
+
+    @Setup
+    public void setUp() {
+        order = Fixtures.order(items);
+        kitchenOrder = Fixtures.kitchenOrder(items);
+    }
+
+    @Benchmark
+    public Object orderCalculateTotal() {
+        order.calculateTotal();
+        return order.getTotalAmount();
+    }
+
+    @Benchmark
+    public Object kitchenOrderCalculateTotal() {
+        kitchenOrder.calculateTotal();
+        return kitchenOrder.getTotalAmount();
+    }
+}
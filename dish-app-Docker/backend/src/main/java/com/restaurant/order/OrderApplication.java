@@ -2,9 +2,11 @@ package com.restaurant.order;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
 @SpringBootApplication
+@EnableScheduling
 @CrossOrigin(origins = "http://localhost:4200")
 public class OrderApplication {
     public static void main(String[] args) {
@@ -1,6 +1,8 @@
 package com.restaurant.order.config;
 
 import com.restaurant.order.service.DishService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
@@ -8,13 +10,15 @@ import org.springframework.stereotype.Component;
 @Component
 public class DataInitializer implements CommandLineRunner {
     
+    private static final Logger log = LoggerFactory.getLogger(DataInitializer.class);
+    
     @Autowired
     private DishService dishService;
     
     @Override
     public void run(String... args) throws Exception {
-        System.out.println("Inicializando dados padrão...");
+        log.info("Inicializando dados padrão...");
         dishService.initializeDefaultDishes();
-        System.out.println("Dados padrão inicializados com sucesso!");
+        log.info("Dados padrão inicializados com sucesso!");
     }
 }
@@ -0,0 +1,87 @@
+package com.restaurant.order.config;
+
+import com.restaurant.order.model.OrderStatus;
+import com.restaurant.order.model.Station;
+import com.restaurant.order.service.ConflictRetrier;
+import com.restaurant.order.service.KitchenBoard;
+import com.restaurant.order.service.KitchenStationRouter;
+import com.restaurant.order.service.KitchenStreamService;
+import com.restaurant.order.web.ConcurrencyLimitFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+/**
+ * Gauges lidos na hora do scrape a partir do estado que os componentes já mantêm.
+ *
+ * Ficam em MeterBinder para serem registrados depois que o contexto sobe, sem que
+ * os serviços dependam do registro. Timers dos serviços vêm do @Timed nas classes;
+ * repositórios, Hikari e Hibernate são instrumentados pelo Actuator.
+ */
+@Configuration
+public class MetricsConfig {
+
+    private static final OrderStatus[] BOARD_STATUSES = {OrderStatus.NEW, OrderStatus.PREPARING, OrderStatus.READY};
+
+    @Bean
+    public MeterBinder kitchenQueueMetrics(KitchenBoard kitchenBoard, KitchenStationRouter kitchenStationRouter,
+                                           KitchenStreamService kitchenStreamService) {
+        return registry -> {
+            for (OrderStatus status : BOARD_STATUSES) {
+                Gauge.builder("restaurant.kitchen.queue", kitchenBoard, board -> board.countByStatus(status))
+                    .description("Comandas ativas no quadro da cozinha")
+                    .tag("status", status.name())
+                    .register(registry);
+            }
+            for (Station station : Station.values()) {
+                Gauge.builder("restaurant.kitchen.station.queue", kitchenStationRouter, router -> router.countByStation(station))
+                    .description("Itens pendentes na fila de cada praça")
+                    .tag("station", station.name())
+                    .register(registry);
+            }
+            Gauge.builder("restaurant.kitchen.stream.subscribers", kitchenStreamService, KitchenStreamService::getSubscriberCount)
+                .description("Telas conectadas ao feed SSE da cozinha")
+                .register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder conflictRetryMetrics(ConflictRetrier conflictRetrier) {
+        return registry -> {
+            for (String outcome : new String[] {"conflicts", "retries", "exhausted"}) {
+                FunctionCounter.builder("restaurant.optimistic.lock", conflictRetrier, retrier -> retrier.getStats().get(outcome))
+                    .description("Conflitos de @Version tratados pelo ConflictRetrier")
+                    .tag("outcome", outcome)
+                    .register(registry);
+            }
+        };
+    }
+
+    // O filtro só existe com concurrency.limit.enabled=true
+    @Bean
+    public MeterBinder concurrencyLimitMetrics(ObjectProvider<ConcurrencyLimitFilter> filter) {
+        return registry -> filter.ifAvailable(limiter -> {
+            Gauge.builder("restaurant.concurrency.limit", limiter, f -> stat(f.getStats(), "limit"))
+                .description("Requisições simultâneas permitidas")
+                .register(registry);
+            Gauge.builder("restaurant.concurrency.in_use", limiter, f -> stat(f.getStats(), "inUse"))
+                .description("Requisições em execução")
+                .register(registry);
+            Gauge.builder("restaurant.concurrency.waiting", limiter, f -> stat(f.getStats(), "waiting"))
+                .description("Requisições aguardando vaga")
+                .register(registry);
+            FunctionCounter.builder("restaurant.concurrency.rejected", limiter, f -> stat(f.getStats(), "rejected"))
+                .description("Requisições recusadas com 503")
+                .register(registry);
+        });
+    }
+
+    private static double stat(Map<String, Object> stats, String key) {
+        return ((Number) stats.get(key)).doubleValue();
+    }
+}
@@ -1,9 +1,16 @@
 package com.restaurant.order.config;
 
+import com.restaurant.order.model.Station;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.format.FormatterRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
     
+    // /kitchen/stations/grill/queue: praça em minúsculas na URL; nome inválido vira 400
+    @Override
+    public void addFormatters(FormatterRegistry registry) {
+        registry.addConverter(String.class, Station.class, Station::fromPath);
+    }
 }
@@ -1,12 +1,29 @@
 package com.restaurant.order.controller;
 
+import com.restaurant.order.dto.CursorPage;
+import com.restaurant.order.dto.KitchenOrderSummary;
+import com.restaurant.order.dto.PrepTimeReport;
+import com.restaurant.order.dto.StationItem;
 import com.restaurant.order.model.KitchenOrder;
 import com.restaurant.order.model.KitchenOrderItem;
 import com.restaurant.order.model.OrderStatus;
+import com.restaurant.order.model.Station;
+import com.restaurant.order.service.KitchenBoard;
+import com.restaurant.order.service.ConflictRetrier;
 import com.restaurant.order.service.KitchenService;
+import com.restaurant.order.service.KitchenStationRouter;
+import com.restaurant.order.service.KitchenStreamService;
+import com.restaurant.order.service.PrepTimeAnalytics;
+import com.restaurant.order.web.NdjsonResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -20,11 +37,88 @@ public class KitchenController {
     @Autowired
     private KitchenService kitchenService;
     
+    @Autowired
+    private ConflictRetrier conflictRetrier;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private KitchenStreamService kitchenStreamService;
+    
+    @Autowired
+    private KitchenBoard kitchenBoard;
+    
+    @Autowired
+    private PrepTimeAnalytics prepTimeAnalytics;
+    
+    @Autowired
+    private KitchenStationRouter kitchenStationRouter;
+    
+    // Feed SSE para a tela da cozinha: snapshot inicial e depois apenas as alterações
+    @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamKitchenOrders(@RequestParam(required = false) List<OrderStatus> status) {
+        return kitchenStreamService.subscribe(status);
+    }
+    
+    // Itens pendentes por praça, para o painel do chefe
+    @GetMapping("/stations")
+    public Map<Station, Integer> getStationQueueSizes() {
+        return kitchenStationRouter.getQueueSizes();
+    }
+    
+    // Fila de uma praça (grill, fryer, salad, bar) na ordem de atendimento do quadro
+    @GetMapping("/stations/{station}/queue")
+    public List<StationItem> getStationQueue(@PathVariable Station station) {
+        return kitchenService.getStationQueue(station);
+    }
+    
+    // Feed SSE da tela de uma praça: snapshot da fila e depois os itens de cada comanda alterada
+    @GetMapping(path = "/stations/{station}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStationQueue(@PathVariable Station station) {
+        return kitchenStreamService.subscribe(station);
+    }
+    
+    // Percentis do tempo de preparo por prato e por hora; minSamples esconde pratos com poucas comandas
+    @GetMapping("/analytics/prep-times")
+    public PrepTimeReport getPrepTimes(@RequestParam(defaultValue = "1") int minSamples) {
+        return prepTimeAnalytics.getReport(minSamples);
+    }
+    
+    // Compara o quadro em memória com o banco; com repair=true recarrega o quadro se houver divergência
+    @GetMapping("/board/consistency")
+    public Map<String, Object> checkBoardConsistency(@RequestParam(defaultValue = "false") boolean repair) {
+        Map<String, Object> report = kitchenBoard.checkConsistency();
+        if (repair && !Boolean.TRUE.equals(report.get("consistent"))) {
+            kitchenBoard.rebuild();
+            report.put("repaired", true);
+        }
+        return report;
+    }
+    
     @GetMapping("/orders")
     public List<KitchenOrder> getAllKitchenOrders() {
         return kitchenService.getAllKitchenOrders();
     }
     
+    // Paginação por chave: GET ?size=50 e depois ?size=50&cursor=<nextCursor>
+    @GetMapping(value = "/orders", params = "size")
+    public ResponseEntity<CursorPage<KitchenOrder>> getKitchenOrdersPage(
+            @RequestParam int size,
+            @RequestParam(required = false) String cursor) {
+        try {
+            return ResponseEntity.ok(kitchenService.getKitchenOrdersPage(cursor, CursorPage.clampSize(size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Exportação completa em NDJSON (Accept: application/x-ndjson), sem carregar a tabela em memória
+    @GetMapping(value = "/orders", produces = NdjsonResponse.MEDIA_TYPE_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamKitchenOrders() {
+        return NdjsonResponse.<KitchenOrder>of(objectMapper, kitchenService::forEachKitchenOrder);
+    }
+    
     @GetMapping("/orders/active")
     public List<KitchenOrder> getActiveKitchenOrders() {
         return kitchenService.getActiveKitchenOrders();
@@ -50,6 +144,12 @@ public class KitchenController {
         return kitchenService.getOrdersByTable(tableNumber);
     }
     
+    // Cabeçalhos das comandas (sem itens) para o quadro; sem status devolve as ativas
+    @GetMapping("/orders/summary")
+    public List<KitchenOrderSummary> getKitchenOrderSummaries(@RequestParam(required = false) OrderStatus status) {
+        return kitchenService.getKitchenOrderSummaries(status);
+    }
+    
     @GetMapping("/orders/{id}")
     public ResponseEntity<KitchenOrder> getKitchenOrderById(@PathVariable Long id) {
         return kitchenService.getKitchenOrderById(id)
@@ -57,6 +157,13 @@ public class KitchenController {
             .orElse(ResponseEntity.notFound().build());
     }
     
+    @GetMapping("/orders/{id}/eta")
+    public ResponseEntity<Map<String, Integer>> getEstimatedReadyMinutes(@PathVariable Long id) {
+        return kitchenService.getRemainingMinutes(id)
+            .map(minutes -> ResponseEntity.ok(Map.of("estimatedReadyMinutes", minutes)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
     @PostMapping("/orders")
     public KitchenOrder createKitchenOrder(@RequestBody KitchenOrder kitchenOrder) {
         return kitchenService.createKitchenOrder(kitchenOrder);
@@ -66,8 +173,10 @@ public class KitchenController {
     public ResponseEntity<KitchenOrder> updateOrderStatus(@PathVariable Long id, @RequestBody Map<String, String> statusUpdate) {
         try {
             OrderStatus status = OrderStatus.valueOf(statusUpdate.get("status"));
-            KitchenOrder updatedOrder = kitchenService.updateOrderStatus(id, status);
+            KitchenOrder updatedOrder = conflictRetrier.run(() -> kitchenService.updateOrderStatus(id, status));
             return ResponseEntity.ok(updatedOrder);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
@@ -82,8 +191,10 @@ public class KitchenController {
             @RequestBody Map<String, String> statusUpdate) {
         try {
             KitchenOrderItem.PreparationStatus status = KitchenOrderItem.PreparationStatus.valueOf(statusUpdate.get("status"));
-            KitchenOrder updatedOrder = kitchenService.updateItemPreparationStatus(orderId, itemId, status);
+            KitchenOrder updatedOrder = conflictRetrier.run(() -> kitchenService.updateItemPreparationStatus(orderId, itemId, status));
             return ResponseEntity.ok(updatedOrder);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
@@ -97,8 +208,10 @@ public class KitchenController {
             @PathVariable Long itemId, 
             @RequestBody Map<String, String> notesUpdate) {
         try {
-            KitchenOrder updatedOrder = kitchenService.addPreparationNotes(orderId, itemId, notesUpdate.get("notes"));
+            KitchenOrder updatedOrder = conflictRetrier.run(() -> kitchenService.addPreparationNotes(orderId, itemId, notesUpdate.get("notes")));
             return ResponseEntity.ok(updatedOrder);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -107,8 +220,10 @@ public class KitchenController {
     @PatchMapping("/orders/{id}/priority")
     public ResponseEntity<KitchenOrder> updateOrderPriority(@PathVariable Long id, @RequestBody Map<String, Integer> priorityUpdate) {
         try {
-            KitchenOrder updatedOrder = kitchenService.updateOrderPriority(id, priorityUpdate.get("priority"));
+            KitchenOrder updatedOrder = conflictRetrier.run(() -> kitchenService.updateOrderPriority(id, priorityUpdate.get("priority")));
             return ResponseEntity.ok(updatedOrder);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -117,8 +232,10 @@ public class KitchenController {
     @PatchMapping("/orders/{id}/notes")
     public ResponseEntity<KitchenOrder> addOrderNotes(@PathVariable Long id, @RequestBody Map<String, String> notesUpdate) {
         try {
-            KitchenOrder updatedOrder = kitchenService.addOrderNotes(id, notesUpdate.get("notes"));
+            KitchenOrder updatedOrder = conflictRetrier.run(() -> kitchenService.addOrderNotes(id, notesUpdate.get("notes")));
             return ResponseEntity.ok(updatedOrder);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -127,8 +244,10 @@ public class KitchenController {
     @PatchMapping("/orders/{id}/estimated-time")
     public ResponseEntity<KitchenOrder> updateEstimatedTime(@PathVariable Long id, @RequestBody Map<String, Integer> timeUpdate) {
         try {
-            KitchenOrder updatedOrder = kitchenService.updateEstimatedTime(id, timeUpdate.get("estimatedTime"));
+            KitchenOrder updatedOrder = conflictRetrier.run(() -> kitchenService.updateEstimatedTime(id, timeUpdate.get("estimatedTime")));
             return ResponseEntity.ok(updatedOrder);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -137,8 +256,10 @@ public class KitchenController {
     @PatchMapping("/orders/{id}/ready")
     public ResponseEntity<KitchenOrder> markOrderAsReady(@PathVariable Long id) {
         try {
-            KitchenOrder updatedOrder = kitchenService.markOrderAsReady(id);
+            KitchenOrder updatedOrder = conflictRetrier.run(() -> kitchenService.markOrderAsReady(id));
             return ResponseEntity.ok(updatedOrder);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -147,8 +268,10 @@ public class KitchenController {
     @PatchMapping("/orders/{id}/all-items-ready")
     public ResponseEntity<KitchenOrder> markAllItemsAsReady(@PathVariable Long id) {
         try {
-            KitchenOrder updatedOrder = kitchenService.markAllItemsAsReady(id);
+            KitchenOrder updatedOrder = conflictRetrier.run(() -> kitchenService.markAllItemsAsReady(id));
             return ResponseEntity.ok(updatedOrder);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -157,8 +280,10 @@ public class KitchenController {
     @PatchMapping("/orders/{id}/delivered")
     public ResponseEntity<KitchenOrder> markOrderAsDelivered(@PathVariable Long id) {
         try {
-            KitchenOrder updatedOrder = kitchenService.markOrderAsDelivered(id);
+            KitchenOrder updatedOrder = conflictRetrier.run(() -> kitchenService.markOrderAsDelivered(id));
             return ResponseEntity.ok(updatedOrder);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -167,8 +292,10 @@ public class KitchenController {
     @PatchMapping("/orders/{id}/cancel")
     public ResponseEntity<KitchenOrder> cancelOrder(@PathVariable Long id) {
         try {
-            KitchenOrder updatedOrder = kitchenService.cancelOrder(id);
+            KitchenOrder updatedOrder = conflictRetrier.run(() -> kitchenService.cancelOrder(id));
             return ResponseEntity.ok(updatedOrder);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -191,6 +318,27 @@ public class KitchenController {
         return kitchenService.getOrdersByDateRange(startDate, endDate);
     }
     
+    @GetMapping(value = "/orders/date-range", params = "size")
+    public ResponseEntity<CursorPage<KitchenOrder>> getOrdersByDateRangePage(
+            @RequestParam LocalDateTime startDate, 
+            @RequestParam LocalDateTime endDate,
+            @RequestParam int size,
+            @RequestParam(required = false) String cursor) {
+        try {
+            return ResponseEntity.ok(kitchenService.getOrdersByDateRangePage(startDate, endDate, cursor, CursorPage.clampSize(size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    @GetMapping(value = "/orders/date-range", produces = NdjsonResponse.MEDIA_TYPE_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamOrdersByDateRange(
+            @RequestParam LocalDateTime startDate, 
+            @RequestParam LocalDateTime endDate) {
+        return NdjsonResponse.<KitchenOrder>of(objectMapper,
+            action -> kitchenService.forEachKitchenOrderInDateRange(startDate, endDate, action));
+    }
+    
     @DeleteMapping("/orders/{id}")
     public ResponseEntity<Void> deleteKitchenOrder(@PathVariable Long id) {
         try {
@@ -1,13 +1,25 @@
 package com.restaurant.order.controller;
 
+import com.restaurant.order.dto.CursorPage;
+import com.restaurant.order.dto.ItemOperation;
+import com.restaurant.order.dto.OrderSummary;
 import com.restaurant.order.model.Order;
 import com.restaurant.order.model.OrderItem;
 import com.restaurant.order.model.OrderStatus;
+import com.restaurant.order.service.ConflictRetrier;
 import com.restaurant.order.service.OrderService;
+import com.restaurant.order.web.NdjsonResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -16,14 +28,46 @@ import java.util.Map;
 @CrossOrigin(origins = "http://localhost:4200")
 public class OrderController {
     
+    private static final Logger log = LoggerFactory.getLogger(OrderController.class);
+    
     @Autowired
     private OrderService orderService;
     
+    @Autowired
+    private ConflictRetrier conflictRetrier;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     @GetMapping
     public List<Order> getAllOrders() {
         return orderService.getAllOrders();
     }
     
+    // Paginação por chave: GET ?size=50 e depois ?size=50&cursor=<nextCursor>
+    @GetMapping(params = "size")
+    public ResponseEntity<CursorPage<Order>> getOrdersPage(
+            @RequestParam int size,
+            @RequestParam(required = false) String cursor) {
+        try {
+            return ResponseEntity.ok(orderService.getOrdersPage(cursor, CursorPage.clampSize(size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Exportação completa em NDJSON (Accept: application/x-ndjson), sem carregar a tabela em memória
+    @GetMapping(produces = NdjsonResponse.MEDIA_TYPE_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamOrders() {
+        return NdjsonResponse.<Order>of(objectMapper, orderService::forEachOrder);
+    }
+    
+    // Cabeçalhos dos pedidos (sem itens) para listagens
+    @GetMapping("/summary")
+    public List<OrderSummary> getOrderSummaries(@RequestParam(required = false) OrderStatus status) {
+        return orderService.getOrderSummaries(status);
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
         return orderService.getOrderById(id)
@@ -31,6 +75,14 @@ public class OrderController {
             .orElse(ResponseEntity.notFound().build());
     }
     
+    // Minutos até o pedido ficar pronto; 404 se o pedido não existe ou já saiu da cozinha
+    @GetMapping("/{id}/eta")
+    public ResponseEntity<Map<String, Integer>> getEstimatedReadyMinutes(@PathVariable Long id) {
+        return orderService.getEstimatedReadyMinutes(id)
+            .map(minutes -> ResponseEntity.ok(Map.of("estimatedReadyMinutes", minutes)))
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
     @GetMapping("/table/{tableNumber}")
     public List<Order> getOrdersByTable(@PathVariable Integer tableNumber) {
         return orderService.getOrdersByTable(tableNumber);
@@ -44,8 +96,14 @@ public class OrderController {
     @PutMapping("/{id}")
     public ResponseEntity<Order> updateOrder(@PathVariable Long id, @RequestBody Order order) {
         try {
-            Order updatedOrder = orderService.updateOrder(id, order);
+            List<OrderItem> requestedItems = new ArrayList<>(order.getItems());
+            Order updatedOrder = conflictRetrier.run(() -> {
+                order.setItems(copyOf(requestedItems));
+                return orderService.updateOrder(id, order);
+            });
             return ResponseEntity.ok(updatedOrder);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -54,14 +112,14 @@ public class OrderController {
     @PatchMapping("/{id}/status")
     public ResponseEntity<Order> updateOrderStatus(@PathVariable Long id, @RequestBody Map<String, String> statusUpdate) {
         try {
-            System.out.println("StatusUpdate recebido: " + statusUpdate);
             String statusString = statusUpdate.get("status");
-            System.out.println("Status string extraído: " + statusString);
             OrderStatus status = OrderStatus.valueOf(statusString);
-            Order updatedOrder = orderService.updateOrderStatus(id, status);
+            Order updatedOrder = conflictRetrier.run(() -> orderService.updateOrderStatus(id, status));
             return ResponseEntity.ok(updatedOrder);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (IllegalArgumentException e) {
-            System.err.println("Erro ao converter status: " + e.getMessage());
+            log.debug("Status inválido para o pedido {}: {}", id, statusUpdate);
             return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
@@ -71,8 +129,10 @@ public class OrderController {
     @PostMapping("/{id}/items")
     public ResponseEntity<Order> addItemToOrder(@PathVariable Long id, @RequestBody OrderItem item) {
         try {
-            Order updatedOrder = orderService.addItemToOrder(id, item);
+            Order updatedOrder = conflictRetrier.run(() -> orderService.addItemToOrder(id, copyOf(item)));
             return ResponseEntity.ok(updatedOrder);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -81,8 +141,10 @@ public class OrderController {
     @DeleteMapping("/{id}/items/{itemId}")
     public ResponseEntity<Order> removeItemFromOrder(@PathVariable Long id, @PathVariable Long itemId) {
         try {
-            Order updatedOrder = orderService.removeItemFromOrder(id, itemId);
+            Order updatedOrder = conflictRetrier.run(() -> orderService.removeItemFromOrder(id, itemId));
             return ResponseEntity.ok(updatedOrder);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -92,8 +154,25 @@ public class OrderController {
     public ResponseEntity<Order> updateItemQuantity(@PathVariable Long id, @PathVariable Long itemId, @RequestBody Map<String, Integer> quantityUpdate) {
         try {
             Integer quantity = quantityUpdate.get("quantity");
-            Order updatedOrder = orderService.updateItemQuantity(id, itemId, quantity);
+            Order updatedOrder = conflictRetrier.run(() -> orderService.updateItemQuantity(id, itemId, quantity));
+            return ResponseEntity.ok(updatedOrder);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    // Várias alterações de item numa só chamada: [{"op":"ADD",...},{"op":"UPDATE","itemId":3,"quantity":2},{"op":"REMOVE","itemId":5}]
+    @PatchMapping("/{id}/batch")
+    public ResponseEntity<Order> applyItemOperations(@PathVariable Long id, @RequestBody List<ItemOperation> operations) {
+        try {
+            Order updatedOrder = conflictRetrier.run(() -> orderService.applyItemOperations(id, operations));
             return ResponseEntity.ok(updatedOrder);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -108,5 +187,24 @@ public class OrderController {
             return ResponseEntity.notFound().build();
         }
     }
+    
+    // Cada tentativa recebe itens novos: a que falhou deixa os dela presos ao pedido antigo e com id da sequência
+    private static OrderItem copyOf(OrderItem requested) {
+        OrderItem item = new OrderItem();
+        item.setId(requested.getId());
+        item.setDishId(requested.getDishId());
+        item.setDishName(requested.getDishName());
+        item.setUnitPrice(requested.getUnitPrice());
+        item.setQuantity(requested.getQuantity());
+        return item;
+    }
+    
+    private static List<OrderItem> copyOf(List<OrderItem> requested) {
+        List<OrderItem> items = new ArrayList<>(requested.size());
+        for (OrderItem item : requested) {
+            items.add(copyOf(item));
+        }
+        return items;
+    }
 }
 
@@ -1,14 +1,24 @@
 package com.restaurant.order.controller;
 
-import com.restaurant.order.model.Payment;
+import com.restaurant.order.dto.CursorPage;
+import com.restaurant.order.dto.RevenueReport;
 import com.restaurant.order.model.Payment.PaymentMethod;
 import com.restaurant.order.model.Payment.PaymentStatus;
+import com.restaurant.order.model.Money;
+import com.restaurant.order.model.OrderBalance;
+import com.restaurant.order.model.Payment;
 import com.restaurant.order.service.PaymentService;
+import com.restaurant.order.web.NdjsonResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -20,11 +30,32 @@ public class PaymentController {
     @Autowired
     private PaymentService paymentService;
     
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     @GetMapping
     public List<Payment> getAllPayments() {
         return paymentService.getAllPayments();
     }
     
+    // Paginação por chave: GET ?size=50 e depois ?size=50&cursor=<nextCursor>
+    @GetMapping(params = "size")
+    public ResponseEntity<CursorPage<Payment>> getPaymentsPage(
+            @RequestParam int size,
+            @RequestParam(required = false) String cursor) {
+        try {
+            return ResponseEntity.ok(paymentService.getPaymentsPage(cursor, CursorPage.clampSize(size)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+    
+    // Exportação completa em NDJSON (Accept: application/x-ndjson), sem carregar a tabela em memória
+    @GetMapping(produces = NdjsonResponse.MEDIA_TYPE_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamPayments() {
+        return NdjsonResponse.<Payment>of(objectMapper, paymentService::forEachPayment);
+    }
+    
     @GetMapping("/order/{orderId}")
     public List<Payment> getPaymentsByOrderId(@PathVariable Long orderId) {
         return paymentService.getPaymentsByOrderId(orderId);
@@ -55,7 +86,7 @@ public class PaymentController {
     @PostMapping
     public Payment createPayment(@RequestBody Map<String, Object> paymentData) {
         Long orderId = Long.valueOf(paymentData.get("orderId").toString());
-        Double amount = Double.valueOf(paymentData.get("amount").toString());
+        Money amount = Money.of(paymentData.get("amount").toString());
         PaymentMethod method = PaymentMethod.valueOf(paymentData.get("paymentMethod").toString());
         
         return paymentService.createPayment(orderId, amount, method);
@@ -66,11 +97,14 @@ public class PaymentController {
             @PathVariable Long id, 
             @RequestBody Map<String, Object> cashData) {
         try {
-            Double cashReceived = Double.valueOf(cashData.get("cashReceived").toString());
+            Money cashReceived = Money.of(cashData.get("cashReceived").toString());
             String processedBy = cashData.get("processedBy").toString();
             
             Payment updatedPayment = paymentService.processCashPayment(id, cashReceived, processedBy);
             return ResponseEntity.ok(updatedPayment);
+        } catch (OptimisticLockingFailureException e) {
+            // Outro caixa alterou o pagamento ao mesmo tempo; pagamento não é repetido automaticamente
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(null);
         } catch (RuntimeException e) {
@@ -89,6 +123,8 @@ public class PaymentController {
             
             Payment updatedPayment = paymentService.processCardPayment(id, transactionId, cardLastFour, processedBy);
             return ResponseEntity.ok(updatedPayment);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(null);
         } catch (RuntimeException e) {
@@ -106,6 +142,8 @@ public class PaymentController {
             
             Payment updatedPayment = paymentService.processPixPayment(id, transactionId, processedBy);
             return ResponseEntity.ok(updatedPayment);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().body(null);
         } catch (RuntimeException e) {
@@ -119,6 +157,8 @@ public class PaymentController {
             PaymentStatus status = PaymentStatus.valueOf(statusUpdate.get("status"));
             Payment updatedPayment = paymentService.updatePaymentStatus(id, status);
             return ResponseEntity.ok(updatedPayment);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (IllegalArgumentException e) {
             return ResponseEntity.badRequest().build();
         } catch (RuntimeException e) {
@@ -131,6 +171,8 @@ public class PaymentController {
         try {
             Payment updatedPayment = paymentService.addPaymentNotes(id, notesUpdate.get("notes"));
             return ResponseEntity.ok(updatedPayment);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (RuntimeException e) {
             return ResponseEntity.notFound().build();
         }
@@ -141,14 +183,17 @@ public class PaymentController {
             @RequestParam LocalDateTime startDate, 
             @RequestParam LocalDateTime endDate) {
         try {
-            Double totalRevenue = paymentService.getTotalRevenueByDateRange(startDate, endDate);
-            Long completedPayments = paymentService.getCompletedPaymentsCountByDateRange(startDate, endDate);
-            List<Object[]> revenueByMethod = paymentService.getRevenueByPaymentMethod(startDate, endDate);
+            RevenueReport report = paymentService.getRevenueReport(startDate, endDate);
+            
+            // revenueByMethod continua como lista de pares [método, valor]
+            List<Object[]> revenueByMethod = new ArrayList<>();
+            report.revenueByMethod().forEach((method, amount) -> revenueByMethod.add(new Object[] { method, amount }));
             
             Map<String, Object> response = Map.of(
-                "totalRevenue", totalRevenue,
-                "completedPayments", completedPayments,
-                "revenueByMethod", revenueByMethod
+                "totalRevenue", report.totalRevenue(),
+                "completedPayments", report.completedPayments(),
+                "revenueByMethod", revenueByMethod,
+                "revenueByProcessedBy", report.revenueByProcessedBy()
             );
             
             return ResponseEntity.ok(response);
@@ -162,6 +207,14 @@ public class PaymentController {
         return paymentService.getPaymentsByProcessedBy(processedBy);
     }
     
+    // Devido, pago e restante do pedido, lidos do saldo mantido a cada pagamento (contas divididas incluídas)
+    @GetMapping("/order/{orderId}/balance")
+    public ResponseEntity<OrderBalance> getOrderBalance(@PathVariable Long orderId) {
+        return paymentService.getOrderBalance(orderId)
+            .map(balance -> ResponseEntity.ok().body(balance))
+            .orElse(ResponseEntity.notFound().build());
+    }
+    
     @GetMapping("/order/{orderId}/fully-paid")
     public ResponseEntity<Map<String, Boolean>> isOrderFullyPaid(@PathVariable Long orderId) {
         boolean fullyPaid = paymentService.isOrderFullyPaid(orderId);
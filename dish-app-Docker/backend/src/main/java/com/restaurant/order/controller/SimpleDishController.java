@@ -1,11 +1,14 @@
 package com.restaurant.order.controller;
 
 import com.restaurant.order.model.Dish;
+import com.restaurant.order.service.DishCatalog;
 import com.restaurant.order.service.DishService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import java.util.List;
+import org.springframework.web.context.request.WebRequest;
 import java.util.Optional;
 
 @RestController
@@ -16,10 +19,21 @@ public class SimpleDishController {
     @Autowired
     private DishService dishService;
     
+    @Autowired
+    private DishCatalog dishCatalog;
+    
+    // Devolve o JSON já serializado do snapshot; If-None-Match com o mesmo ETag responde 304 sem corpo
     @GetMapping
-    public ResponseEntity<List<Dish>> getAllDishes() {
-        List<Dish> dishes = dishService.getAllDishes();
-        return ResponseEntity.ok(dishes);
+    public ResponseEntity<byte[]> getAllDishes(WebRequest request) {
+        DishCatalog.Snapshot catalog = dishCatalog.getSnapshot();
+        if (request.checkNotModified(catalog.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+            .eTag(catalog.etag())
+            .cacheControl(CacheControl.noCache())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(catalog.json());
     }
     
     @PostMapping
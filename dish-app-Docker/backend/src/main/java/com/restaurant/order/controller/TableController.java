@@ -0,0 +1,23 @@
+package com.restaurant.order.controller;
+
+import com.restaurant.order.dto.TableStatus;
+import com.restaurant.order.service.TableStatusIndex;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/tables")
+@CrossOrigin(origins = "http://localhost:4200")
+public class TableController {
+    
+    @Autowired
+    private TableStatusIndex tableStatusIndex;
+    
+    // Mapa do salão numa só chamada: situação, total e idade de cada mesa, sem ir ao banco
+    @GetMapping("/status")
+    public List<TableStatus> getTableStatus() {
+        return tableStatusIndex.getAllTables();
+    }
+}
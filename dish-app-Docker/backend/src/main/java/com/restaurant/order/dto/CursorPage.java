@@ -0,0 +1,24 @@
+package com.restaurant.order.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+// Página da paginação por chave; nextCursor nulo indica que não há mais registros
+public record CursorPage<T>(List<T> items, int size, String nextCursor) {
+
+    public static final int DEFAULT_SIZE = 50;
+    public static final int MAX_SIZE = 500;
+
+    public static int clampSize(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+
+    // As consultas buscam size + 1 registros só para saber se existe próxima página
+    public static <T> CursorPage<T> of(List<T> fetched, int size, Function<T, PageCursor> cursorOf) {
+        if (fetched.size() <= size) {
+            return new CursorPage<>(fetched, fetched.size(), null);
+        }
+        List<T> items = fetched.subList(0, size);
+        return new CursorPage<>(items, size, cursorOf.apply(items.get(size - 1)).encode());
+    }
+}
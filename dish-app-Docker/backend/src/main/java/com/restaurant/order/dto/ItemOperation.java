@@ -0,0 +1,24 @@
+package com.restaurant.order.dto;
+
+import com.restaurant.order.model.Money;
+
+/**
+ * Uma alteração de item dentro de PATCH /orders/{id}/batch.
+ *
+ * ADD usa dishId, dishName, quantity e unitPrice (soma na linha do mesmo prato, como
+ * POST /orders/{id}/items); UPDATE usa itemId e quantity; REMOVE usa só itemId.
+ */
+public record ItemOperation(
+        Type op,
+        Long itemId,
+        Long dishId,
+        String dishName,
+        Integer quantity,
+        Money unitPrice) {
+
+    public enum Type {
+        ADD,
+        UPDATE,
+        REMOVE
+    }
+}
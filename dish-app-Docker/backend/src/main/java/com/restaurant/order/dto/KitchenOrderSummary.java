@@ -0,0 +1,25 @@
+package com.restaurant.order.dto;
+
+import com.restaurant.order.model.KitchenOrder;
+import com.restaurant.order.model.Money;
+import com.restaurant.order.model.OrderStatus;
+
+import java.time.LocalDateTime;
+
+// Cabeçalho da comanda para o quadro da cozinha, sem os itens
+public record KitchenOrderSummary(
+        Long id,
+        Long orderId,
+        Integer tableNumber,
+        String customerName,
+        OrderStatus status,
+        Integer priority,
+        Integer estimatedTime,
+        Money totalAmount,
+        LocalDateTime createdAt) {
+
+    public static KitchenOrderSummary of(KitchenOrder order) {
+        return new KitchenOrderSummary(order.getId(), order.getOrderId(), order.getTableNumber(), order.getCustomerName(),
+            order.getStatus(), order.getPriority(), order.getEstimatedTime(), order.getTotalAmount(), order.getCreatedAt());
+    }
+}
@@ -0,0 +1,22 @@
+package com.restaurant.order.dto;
+
+import com.restaurant.order.model.Money;
+import com.restaurant.order.model.Order;
+import com.restaurant.order.model.OrderStatus;
+
+import java.time.LocalDateTime;
+
+// Cabeçalho do pedido para listagens: uma linha por pedido, sem carregar os itens
+public record OrderSummary(
+        Long id,
+        Integer tableNumber,
+        String customerName,
+        OrderStatus status,
+        Money totalAmount,
+        LocalDateTime createdAt) {
+
+    public static OrderSummary of(Order order) {
+        return new OrderSummary(order.getId(), order.getTableNumber(), order.getCustomerName(),
+            order.getStatus(), order.getTotalAmount(), order.getCreatedAt());
+    }
+}
@@ -0,0 +1,34 @@
+package com.restaurant.order.dto;
+
+import org.HdrHistogram.Histogram;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Tempos de preparo (startedAt -> readyAt) em segundos, desde "since"; pratos do mais lento para o mais rápido (p90)
+public record PrepTimeReport(
+        LocalDateTime since,
+        Percentiles overall,
+        List<DishPrepTime> byDish,
+        List<HourPrepTime> byHour) {
+
+    public record Percentiles(long count, long p50, long p90, long p99, long max, double mean) {
+
+        public static Percentiles of(Histogram histogram) {
+            return new Percentiles(
+                histogram.getTotalCount(),
+                histogram.getValueAtPercentile(50.0),
+                histogram.getValueAtPercentile(90.0),
+                histogram.getValueAtPercentile(99.0),
+                histogram.getMaxValue(),
+                Math.round(histogram.getMean() * 10) / 10.0);
+        }
+    }
+
+    public record DishPrepTime(Long dishId, String dishName, Percentiles prepSeconds) {
+    }
+
+    // Hora do dia (0-23) em que o preparo começou
+    public record HourPrepTime(int hour, Percentiles prepSeconds) {
+    }
+}
@@ -0,0 +1,45 @@
+package com.restaurant.order.dto;
+
+import com.restaurant.order.model.Money;
+import com.restaurant.order.model.Payment.PaymentMethod;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Faturamento dos pagamentos COMPLETED num intervalo; processedBy "" agrupa os pagamentos sem operador
+public record RevenueReport(
+        Money totalRevenue,
+        long completedPayments,
+        Map<PaymentMethod, Money> revenueByMethod,
+        Map<String, Money> revenueByProcessedBy) {
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private long totalCents;
+        private long count;
+        private final Map<PaymentMethod, Long> byMethod = new EnumMap<>(PaymentMethod.class);
+        private final Map<String, Long> byProcessedBy = new TreeMap<>();
+
+        public Builder add(PaymentMethod method, String processedBy, long cents, long payments) {
+            totalCents += cents;
+            count += payments;
+            byMethod.merge(method, cents, Long::sum);
+            byProcessedBy.merge(processedBy, cents, Long::sum);
+            return this;
+        }
+
+        public RevenueReport build() {
+            Map<PaymentMethod, Money> methods = new EnumMap<>(PaymentMethod.class);
+            byMethod.forEach((method, cents) -> methods.put(method, Money.ofCents(cents)));
+            Map<String, Money> processors = new TreeMap<>();
+            byProcessedBy.forEach((processedBy, cents) -> processors.put(processedBy, Money.ofCents(cents)));
+            return new RevenueReport(Money.ofCents(totalCents), count,
+                Collections.unmodifiableMap(methods), Collections.unmodifiableMap(processors));
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.restaurant.order.dto;
+
+import com.restaurant.order.model.KitchenOrder;
+import com.restaurant.order.model.KitchenOrderItem;
+import com.restaurant.order.model.OrderStatus;
+import com.restaurant.order.model.Station;
+
+import java.time.LocalDateTime;
+
+// Linha da fila de uma praça: o item a preparar e o mínimo da comanda para a tela identificá-lo
+public record StationItem(
+        Long kitchenOrderId,
+        Long orderId,
+        Integer tableNumber,
+        OrderStatus orderStatus,
+        Integer priority,
+        LocalDateTime createdAt,
+        Long itemId,
+        Long dishId,
+        String dishName,
+        Integer quantity,
+        KitchenOrderItem.PreparationStatus preparationStatus,
+        String preparationNotes,
+        Station station) {
+
+    public static StationItem of(KitchenOrder order, KitchenOrderItem item, Station station) {
+        return new StationItem(order.getId(), order.getOrderId(), order.getTableNumber(), order.getStatus(),
+            order.getPriority(), order.getCreatedAt(), item.getId(), item.getDishId(), item.getDishName(),
+            item.getQuantity(), item.getPreparationStatus(), item.getPreparationNotes(), station);
+    }
+}
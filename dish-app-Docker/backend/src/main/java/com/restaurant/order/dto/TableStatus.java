@@ -0,0 +1,19 @@
+package com.restaurant.order.dto;
+
+import com.restaurant.order.model.Money;
+import com.restaurant.order.model.OrderStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Situação de uma mesa no mapa do salão; status é o do pedido menos adiantado, null se a mesa está livre
+public record TableStatus(
+        int tableNumber,
+        boolean occupied,
+        OrderStatus status,
+        int activeOrders,
+        List<Long> orderIds,
+        Money total,
+        LocalDateTime since,
+        Long ageSeconds) {
+}
@@ -0,0 +1,20 @@
+package com.restaurant.order.event;
+
+// Publicado pelo DishService quando o cardápio muda; o DishCatalog descarta o snapshot depois do commit
+public class DishCatalogChangedEvent {
+
+    private final Long dishId;
+
+    public DishCatalogChangedEvent(Long dishId) {
+        this.dishId = dishId;
+    }
+
+    public Long getDishId() {
+        return dishId;
+    }
+
+    @Override
+    public String toString() {
+        return "DishCatalogChangedEvent{dishId=" + dishId + "}";
+    }
+}
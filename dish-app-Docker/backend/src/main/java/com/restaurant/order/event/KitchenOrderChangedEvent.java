@@ -0,0 +1,60 @@
+package com.restaurant.order.event;
+
+import com.restaurant.order.model.KitchenOrder;
+import com.restaurant.order.model.OrderStatus;
+
+// Publicado pelo KitchenService a cada alteração; os ouvintes recebem depois do commit
+public class KitchenOrderChangedEvent {
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final ChangeType type;
+    private final Long kitchenOrderId;
+    private final KitchenOrder kitchenOrder;
+    private final OrderStatus previousStatus;
+
+    public KitchenOrderChangedEvent(ChangeType type, Long kitchenOrderId, KitchenOrder kitchenOrder, OrderStatus previousStatus) {
+        this.type = type;
+        this.kitchenOrderId = kitchenOrderId;
+        this.kitchenOrder = kitchenOrder;
+        this.previousStatus = previousStatus;
+    }
+
+    public static KitchenOrderChangedEvent created(KitchenOrder kitchenOrder) {
+        return new KitchenOrderChangedEvent(ChangeType.CREATED, kitchenOrder.getId(), kitchenOrder, null);
+    }
+
+    public static KitchenOrderChangedEvent updated(KitchenOrder kitchenOrder, OrderStatus previousStatus) {
+        return new KitchenOrderChangedEvent(ChangeType.UPDATED, kitchenOrder.getId(), kitchenOrder, previousStatus);
+    }
+
+    public static KitchenOrderChangedEvent deleted(Long kitchenOrderId) {
+        return new KitchenOrderChangedEvent(ChangeType.DELETED, kitchenOrderId, null, null);
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public Long getKitchenOrderId() {
+        return kitchenOrderId;
+    }
+
+    // Nulo quando o tipo é DELETED
+    public KitchenOrder getKitchenOrder() {
+        return kitchenOrder;
+    }
+
+    // Nulo quando o status anterior não é conhecido
+    public OrderStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public boolean isStatusChange() {
+        return kitchenOrder != null && previousStatus != null && previousStatus != kitchenOrder.getStatus();
+    }
+}
@@ -0,0 +1,48 @@
+package com.restaurant.order.event;
+
+import com.restaurant.order.model.Order;
+
+// Publicado pelo OrderService a cada alteração de pedido; os ouvintes recebem depois do commit
+public class OrderChangedEvent {
+
+    public enum ChangeType {
+        SAVED,
+        DELETED
+    }
+
+    private final ChangeType type;
+    private final Long orderId;
+    private final Order order;
+
+    public OrderChangedEvent(ChangeType type, Long orderId, Order order) {
+        this.type = type;
+        this.orderId = orderId;
+        this.order = order;
+    }
+
+    public static OrderChangedEvent saved(Order order) {
+        return new OrderChangedEvent(ChangeType.SAVED, order.getId(), order);
+    }
+
+    public static OrderChangedEvent deleted(Long orderId) {
+        return new OrderChangedEvent(ChangeType.DELETED, orderId, null);
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    // null quando o pedido foi removido
+    public Order getOrder() {
+        return order;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderChangedEvent{type=" + type + ", orderId=" + orderId + "}";
+    }
+}
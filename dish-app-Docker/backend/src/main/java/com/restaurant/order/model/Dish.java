@@ -7,7 +7,8 @@ import java.time.LocalDateTime;
 @Table(name = "dishes")
 public class Dish {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "dishes_seq")
+    @SequenceGenerator(name = "dishes_seq", sequenceName = "dishes_seq", allocationSize = 50)
     private Long id;
     
     @Column(nullable = false)
@@ -19,6 +20,11 @@ public class Dish {
     @Column(nullable = false)
     private Double price;
     
+    // Praça que prepara o prato; sem praça, o item vai para kitchen.stations.default
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private Station station;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -45,6 +51,11 @@ public class Dish {
         this.price = price;
     }
     
+    public Dish(String name, String description, Double price, Station station) {
+        this(name, description, price);
+        this.station = station;
+    }
+    
     // Getters e Setters
     public Long getId() {
         return id;
@@ -78,6 +89,14 @@ public class Dish {
         this.price = price;
     }
     
+    public Station getStation() {
+        return station;
+    }
+    
+    public void setStation(Station station) {
+        this.station = station;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,72 @@
+package com.restaurant.order.model;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Totais correntes dos itens de um pedido ou comanda: valor em centavos,
+ * quantidade de unidades e quantidade por prato.
+ *
+ * Cada alteração de item desconta a contribuição antiga e soma a nova, então o
+ * custo é O(1) por mutação em vez de percorrer a lista inteira.
+ */
+final class ItemAggregates {
+
+    private long totalCents;
+    private int itemCount;
+    private final Map<Long, Integer> quantityByDish = new HashMap<>();
+
+    void add(Long dishId, Integer quantity, Money totalPrice) {
+        apply(dishId, quantity, totalPrice, 1);
+    }
+
+    void subtract(Long dishId, Integer quantity, Money totalPrice) {
+        apply(dishId, quantity, totalPrice, -1);
+    }
+
+    private void apply(Long dishId, Integer quantity, Money totalPrice, int sign) {
+        if (totalPrice != null) {
+            totalCents = Math.addExact(totalCents, sign * totalPrice.cents());
+        }
+        int units = quantity != null ? quantity : 0;
+        if (units == 0) {
+            return;
+        }
+        itemCount += sign * units;
+        if (dishId != null) {
+            quantityByDish.merge(dishId, sign * units, (current, delta) -> {
+                int next = current + delta;
+                return next == 0 ? null : next;
+            });
+        }
+    }
+
+    long totalCents() {
+        return totalCents;
+    }
+
+    int itemCount() {
+        return itemCount;
+    }
+
+    int quantityOf(Long dishId) {
+        return quantityByDish.getOrDefault(dishId, 0);
+    }
+
+    Map<Long, Integer> quantityByDish() {
+        return Collections.unmodifiableMap(quantityByDish);
+    }
+
+    boolean sameAs(ItemAggregates other) {
+        return totalCents == other.totalCents
+            && itemCount == other.itemCount
+            && Objects.equals(quantityByDish, other.quantityByDish);
+    }
+
+    @Override
+    public String toString() {
+        return "ItemAggregates{totalCents=" + totalCents + ", itemCount=" + itemCount + ", quantityByDish=" + quantityByDish + "}";
+    }
+}
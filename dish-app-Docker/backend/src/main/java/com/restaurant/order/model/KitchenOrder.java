@@ -1,16 +1,22 @@
 package com.restaurant.order.model;
 
 import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 @Entity
+@NamedEntityGraph(name = "KitchenOrder.items", attributeNodes = @NamedAttributeNode("items"))
 @Table(name = "kitchen_orders")
 public class KitchenOrder {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "kitchen_orders_seq")
+    @SequenceGenerator(name = "kitchen_orders_seq", sequenceName = "kitchen_orders_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "order_id", nullable = false)
@@ -32,12 +38,16 @@ public class KitchenOrder {
     @Column(nullable = false)
     private OrderStatus status;
     
-    @OneToMany(mappedBy = "kitchenOrder", cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "kitchenOrder", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     @JsonManagedReference
     private List<KitchenOrderItem> items = new ArrayList<>();
     
-    @Column(name = "total_amount", nullable = false)
-    private Double totalAmount = 0.0;
+    @Column(name = "total_amount_cents", nullable = false)
+    private Money totalAmount = Money.ZERO;
+    
+    // Montado na primeira mutação ou leitura e depois mantido incrementalmente
+    @Transient
+    private ItemAggregates aggregates;
     
     @Column(name = "estimated_time")
     private Integer estimatedTime; // em minutos
@@ -48,6 +58,10 @@ public class KitchenOrder {
     @Column(name = "notes")
     private String notes;
     
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -60,6 +74,12 @@ public class KitchenOrder {
     @Column(name = "ready_at")
     private LocalDateTime readyAt;
     
+    @Column(name = "delivered_at")
+    private LocalDateTime deliveredAt;
+    
+    @Column(name = "cancelled_at")
+    private LocalDateTime cancelledAt;
+    
     // Constructors
     public KitchenOrder() {}
     
@@ -125,35 +145,75 @@ public class KitchenOrder {
         return status;
     }
     
+    // Cada etapa do ciclo de vida guarda o instante da primeira vez em que foi atingida
     public void setStatus(OrderStatus status) {
+        LocalDateTime now = LocalDateTime.now();
         this.status = status;
-        this.updatedAt = LocalDateTime.now();
+        this.updatedAt = now;
         
         if (status == OrderStatus.PREPARING && this.startedAt == null) {
-            this.startedAt = LocalDateTime.now();
+            this.startedAt = now;
         }
         
         if (status == OrderStatus.READY && this.readyAt == null) {
-            this.readyAt = LocalDateTime.now();
+            this.readyAt = now;
+        }
+        
+        if (status == OrderStatus.DELIVERED && this.deliveredAt == null) {
+            this.deliveredAt = now;
+        }
+        
+        if (status == OrderStatus.CANCELLED && this.cancelledAt == null) {
+            this.cancelledAt = now;
         }
     }
     
+    // Somente leitura: alterações passam por addItem/removeItem para manter os totais
     public List<KitchenOrderItem> getItems() {
-        return items;
+        return Collections.unmodifiableList(items);
     }
     
-    public void setItems(List<KitchenOrderItem> items) {
-        this.items = items;
+    // Substitui o conteúdo da coleção existente (orphanRemoval exige a mesma instância)
+    public void setItems(List<KitchenOrderItem> newItems) {
+        List<KitchenOrderItem> incoming = newItems != null ? new ArrayList<>(newItems) : new ArrayList<>();
+        for (KitchenOrderItem item : items) {
+            if (!incoming.contains(item)) {
+                item.setKitchenOrder(null);
+            }
+        }
+        items.clear();
+        for (KitchenOrderItem item : incoming) {
+            items.add(item);
+            item.setKitchenOrder(this);
+        }
+        calculateTotal();
     }
     
-    public Double getTotalAmount() {
+    // Derivado dos itens; valor enviado pelo cliente é ignorado
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public Money getTotalAmount() {
         return totalAmount;
     }
     
-    public void setTotalAmount(Double totalAmount) {
+    public void setTotalAmount(Money totalAmount) {
         this.totalAmount = totalAmount;
     }
     
+    @JsonIgnore
+    public int getItemCount() {
+        return aggregates().itemCount();
+    }
+    
+    @JsonIgnore
+    public int getQuantityOfDish(Long dishId) {
+        return aggregates().quantityOf(dishId);
+    }
+    
+    @JsonIgnore
+    public Map<Long, Integer> getQuantityByDish() {
+        return aggregates().quantityByDish();
+    }
+    
     public Integer getEstimatedTime() {
         return estimatedTime;
     }
@@ -178,6 +238,14 @@ public class KitchenOrder {
         this.notes = notes;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -210,23 +278,78 @@ public class KitchenOrder {
         this.readyAt = readyAt;
     }
     
+    public LocalDateTime getDeliveredAt() {
+        return deliveredAt;
+    }
+    
+    public void setDeliveredAt(LocalDateTime deliveredAt) {
+        this.deliveredAt = deliveredAt;
+    }
+    
+    public LocalDateTime getCancelledAt() {
+        return cancelledAt;
+    }
+    
+    public void setCancelledAt(LocalDateTime cancelledAt) {
+        this.cancelledAt = cancelledAt;
+    }
+    
     // Helper methods
     public void addItem(KitchenOrderItem item) {
+        aggregates();
         items.add(item);
         item.setKitchenOrder(this);
-        calculateTotal();
+        afterItemChange(item);
     }
     
-    public void removeItem(KitchenOrderItem item) {
+    public boolean removeItem(KitchenOrderItem item) {
+        if (!items.contains(item)) {
+            return false;
+        }
+        beforeItemChange(item);
         items.remove(item);
         item.setKitchenOrder(null);
-        calculateTotal();
+        syncTotal();
+        return true;
     }
     
+    // Recalcula tudo a partir da lista; as mutações normais usam os totais correntes
     public void calculateTotal() {
-        this.totalAmount = items.stream()
-            .mapToDouble(KitchenOrderItem::getTotalPrice)
-            .sum();
+        aggregates = recompute();
+        syncTotal();
+    }
+    
+    // Chamados pelo KitchenOrderItem em volta de qualquer mudança de prato, quantidade ou preço
+    void beforeItemChange(KitchenOrderItem item) {
+        aggregates().subtract(item.getDishId(), item.getQuantity(), item.getTotalPrice());
+    }
+    
+    void afterItemChange(KitchenOrderItem item) {
+        aggregates().add(item.getDishId(), item.getQuantity(), item.getTotalPrice());
+        syncTotal();
+    }
+    
+    private ItemAggregates aggregates() {
+        if (aggregates == null) {
+            aggregates = recompute();
+        }
+        return aggregates;
+    }
+    
+    private ItemAggregates recompute() {
+        ItemAggregates computed = new ItemAggregates();
+        for (KitchenOrderItem item : items) {
+            computed.add(item.getDishId(), item.getQuantity(), item.getTotalPrice());
+        }
+        return computed;
+    }
+    
+    private void syncTotal() {
+        if (totalAmount == null || totalAmount.cents() != aggregates.totalCents()) {
+            totalAmount = Money.ofCents(aggregates.totalCents());
+        }
+        // Modo de verificação: com -ea (padrão nos testes) confere os totais correntes contra o recálculo
+        assert aggregates.sameAs(recompute()) : "Totais da comanda " + id + " divergentes: " + aggregates + " vs " + recompute();
     }
     
     public long getPreparationTime() {
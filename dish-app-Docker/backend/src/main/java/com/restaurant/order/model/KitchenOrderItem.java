@@ -2,13 +2,15 @@ package com.restaurant.order.model;
 
 import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.annotation.PostConstruct;
 
 @Entity
 @Table(name = "kitchen_order_items")
 public class KitchenOrderItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "kitchen_order_items_seq")
+    @SequenceGenerator(name = "kitchen_order_items_seq", sequenceName = "kitchen_order_items_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "dish_id", nullable = false)
@@ -23,11 +25,11 @@ public class KitchenOrderItem {
     @Column(nullable = false)
     private Integer quantity;
     
-    @Column(name = "unit_price", nullable = false)
-    private Double unitPrice;
+    @Column(name = "unit_price_cents", nullable = false)
+    private Money unitPrice;
     
-    @Column(name = "total_price", nullable = false)
-    private Double totalPrice;
+    @Column(name = "total_price_cents", nullable = false)
+    private Money totalPrice;
     
     @Enumerated(EnumType.STRING)
     @Column(name = "preparation_status", nullable = false)
@@ -39,6 +41,11 @@ public class KitchenOrderItem {
     @Column(name = "estimated_prep_time")
     private Integer estimatedPrepTime; // em minutos
     
+    // Cópia da praça do prato quando o item entrou na cozinha
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private Station station;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "kitchen_order_id")
     @JsonIgnore
@@ -66,13 +73,13 @@ public class KitchenOrderItem {
     public KitchenOrderItem() {}
     
     public KitchenOrderItem(Long dishId, String dishName, String dishDescription, 
-                           Integer quantity, Double unitPrice, Integer estimatedPrepTime) {
+                           Integer quantity, Money unitPrice, Integer estimatedPrepTime) {
         this.dishId = dishId;
         this.dishName = dishName;
         this.dishDescription = dishDescription;
         this.quantity = quantity;
         this.unitPrice = unitPrice;
-        this.totalPrice = quantity * unitPrice;
+        this.totalPrice = unitPrice.times(quantity);
         this.estimatedPrepTime = estimatedPrepTime;
     }
     
@@ -90,7 +97,13 @@ public class KitchenOrderItem {
     }
     
     public void setDishId(Long dishId) {
+        if (kitchenOrder != null) {
+            kitchenOrder.beforeItemChange(this);
+        }
         this.dishId = dishId;
+        if (kitchenOrder != null) {
+            kitchenOrder.afterItemChange(this);
+        }
     }
     
     public String getDishName() {
@@ -114,29 +127,49 @@ public class KitchenOrderItem {
     }
     
     public void setQuantity(Integer quantity) {
+        if (kitchenOrder != null) {
+            kitchenOrder.beforeItemChange(this);
+        }
         this.quantity = quantity;
         if (this.unitPrice != null) {
-            this.totalPrice = this.quantity * this.unitPrice;
+            this.totalPrice = this.unitPrice.times(this.quantity);
+        }
+        if (kitchenOrder != null) {
+            kitchenOrder.afterItemChange(this);
         }
     }
     
-    public Double getUnitPrice() {
+    public Money getUnitPrice() {
         return unitPrice;
     }
     
-    public void setUnitPrice(Double unitPrice) {
+    public void setUnitPrice(Money unitPrice) {
+        if (kitchenOrder != null) {
+            kitchenOrder.beforeItemChange(this);
+        }
         this.unitPrice = unitPrice;
-        if (this.quantity != null) {
-            this.totalPrice = this.quantity * this.unitPrice;
+        if (this.quantity != null && this.unitPrice != null) {
+            this.totalPrice = this.unitPrice.times(this.quantity);
+        }
+        if (kitchenOrder != null) {
+            kitchenOrder.afterItemChange(this);
         }
     }
     
-    public Double getTotalPrice() {
+    // Derivado de quantidade x preço unitário; valor enviado pelo cliente é ignorado
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public Money getTotalPrice() {
         return totalPrice;
     }
     
-    public void setTotalPrice(Double totalPrice) {
+    public void setTotalPrice(Money totalPrice) {
+        if (kitchenOrder != null) {
+            kitchenOrder.beforeItemChange(this);
+        }
         this.totalPrice = totalPrice;
+        if (kitchenOrder != null) {
+            kitchenOrder.afterItemChange(this);
+        }
     }
     
     public PreparationStatus getPreparationStatus() {
@@ -163,6 +196,14 @@ public class KitchenOrderItem {
         this.estimatedPrepTime = estimatedPrepTime;
     }
     
+    public Station getStation() {
+        return station;
+    }
+    
+    public void setStation(Station station) {
+        this.station = station;
+    }
+    
     public KitchenOrder getKitchenOrder() {
         return kitchenOrder;
     }
@@ -174,7 +215,7 @@ public class KitchenOrderItem {
     @PostConstruct
     public void calculateTotalPrice() {
         if (this.quantity != null && this.unitPrice != null) {
-            this.totalPrice = this.quantity * this.unitPrice;
+            setTotalPrice(this.unitPrice.times(this.quantity));
         }
     }
 }
@@ -1,15 +1,22 @@
 package com.restaurant.order.model;
 
 import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 @Entity
+@NamedEntityGraph(name = "Order.items", attributeNodes = @NamedAttributeNode("items"))
 @Table(name = "orders")
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "orders_seq")
+    @SequenceGenerator(name = "orders_seq", sequenceName = "orders_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "table_number", nullable = false)
@@ -28,11 +35,23 @@ public class Order {
     @Column(nullable = false)
     private OrderStatus status;
     
-    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.EAGER, orphanRemoval = true)
+    @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
     private List<OrderItem> items = new ArrayList<>();
     
-    @Column(name = "total_amount", nullable = false)
-    private Double totalAmount = 0.0;
+    @Column(name = "total_amount_cents", nullable = false)
+    private Money totalAmount = Money.ZERO;
+    
+    // Montado na primeira mutação ou leitura e depois mantido incrementalmente
+    @Transient
+    private ItemAggregates aggregates;
+    
+    // Previsão devolvida ao cliente na criação e no envio para a cozinha; não é persistida
+    @Transient
+    private Integer estimatedReadyMinutes;
+    
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
     
     @Column(name = "created_at")
     private LocalDateTime createdAt;
@@ -101,22 +120,70 @@ public class Order {
         this.updatedAt = LocalDateTime.now();
     }
     
+    // Somente leitura: alterações passam por addItem/removeItem para manter os totais
     public List<OrderItem> getItems() {
-        return items;
+        return Collections.unmodifiableList(items);
     }
     
-    public void setItems(List<OrderItem> items) {
-        this.items = items;
+    // Substitui o conteúdo da coleção existente (orphanRemoval exige a mesma instância)
+    public void setItems(List<OrderItem> newItems) {
+        List<OrderItem> incoming = newItems != null ? new ArrayList<>(newItems) : new ArrayList<>();
+        for (OrderItem item : items) {
+            if (!incoming.contains(item)) {
+                item.setOrder(null);
+            }
+        }
+        items.clear();
+        for (OrderItem item : incoming) {
+            items.add(item);
+            item.setOrder(this);
+        }
+        calculateTotal();
     }
     
-    public Double getTotalAmount() {
+    // Derivado dos itens; valor enviado pelo cliente é ignorado
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public Money getTotalAmount() {
         return totalAmount;
     }
     
-    public void setTotalAmount(Double totalAmount) {
+    public void setTotalAmount(Money totalAmount) {
         this.totalAmount = totalAmount;
     }
     
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public Integer getEstimatedReadyMinutes() {
+        return estimatedReadyMinutes;
+    }
+    
+    public void setEstimatedReadyMinutes(Integer estimatedReadyMinutes) {
+        this.estimatedReadyMinutes = estimatedReadyMinutes;
+    }
+    
+    @JsonIgnore
+    public int getItemCount() {
+        return aggregates().itemCount();
+    }
+    
+    @JsonIgnore
+    public int getQuantityOfDish(Long dishId) {
+        return aggregates().quantityOf(dishId);
+    }
+    
+    @JsonIgnore
+    public Map<Long, Integer> getQuantityByDish() {
+        return aggregates().quantityByDish();
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -135,21 +202,60 @@ public class Order {
     
     // Helper methods
     public void addItem(OrderItem item) {
+        aggregates();
         items.add(item);
         item.setOrder(this);
-        calculateTotal();
+        afterItemChange(item);
     }
     
-    public void removeItem(OrderItem item) {
+    public boolean removeItem(OrderItem item) {
+        if (!items.contains(item)) {
+            return false;
+        }
+        beforeItemChange(item);
         items.remove(item);
         item.setOrder(null);
-        calculateTotal();
+        syncTotal();
+        return true;
     }
     
+    // Recalcula tudo a partir da lista; as mutações normais usam os totais correntes
     public void calculateTotal() {
-        this.totalAmount = items.stream()
-            .mapToDouble(OrderItem::getTotalPrice)
-            .sum();
+        aggregates = recompute();
+        syncTotal();
+    }
+    
+    // Chamados pelo OrderItem em volta de qualquer mudança de prato, quantidade ou preço
+    void beforeItemChange(OrderItem item) {
+        aggregates().subtract(item.getDishId(), item.getQuantity(), item.getTotalPrice());
+    }
+    
+    void afterItemChange(OrderItem item) {
+        aggregates().add(item.getDishId(), item.getQuantity(), item.getTotalPrice());
+        syncTotal();
+    }
+    
+    private ItemAggregates aggregates() {
+        if (aggregates == null) {
+            aggregates = recompute();
+        }
+        return aggregates;
+    }
+    
+    private ItemAggregates recompute() {
+        ItemAggregates computed = new ItemAggregates();
+        for (OrderItem item : items) {
+            computed.add(item.getDishId(), item.getQuantity(), item.getTotalPrice());
+        }
+        return computed;
+    }
+    
+    private void syncTotal() {
+        if (totalAmount == null || totalAmount.cents() != aggregates.totalCents()) {
+            totalAmount = Money.ofCents(aggregates.totalCents());
+        }
+        // Modo de verificação: com -ea (padrão nos testes) confere os totais correntes contra o recálculo
+        assert aggregates.sameAs(recompute()) : "Totais do pedido " + id + " divergentes: " + aggregates + " vs " + recompute();
     }
     
     @PrePersist
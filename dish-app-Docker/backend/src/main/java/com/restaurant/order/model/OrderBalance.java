@@ -0,0 +1,87 @@
+package com.restaurant.order.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Saldo de um pedido: valor devido (total do pedido) e soma dos pagamentos COMPLETED; mantido pelo OrderBalanceService
+@Entity
+@Table(name = "order_balances")
+public class OrderBalance {
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "due_cents", nullable = false)
+    private Money due = Money.ZERO;
+
+    @Column(name = "paid_cents", nullable = false)
+    private Money paid = Money.ZERO;
+
+    @Column(name = "payment_count", nullable = false)
+    private Integer paymentCount = 0;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public OrderBalance() {}
+
+    public OrderBalance(Long orderId, Money due) {
+        this.orderId = orderId;
+        this.due = due;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public Money getDue() {
+        return due;
+    }
+
+    public void setDue(Money due) {
+        this.due = due;
+    }
+
+    public Money getPaid() {
+        return paid;
+    }
+
+    public void setPaid(Money paid) {
+        this.paid = paid;
+    }
+
+    public Integer getPaymentCount() {
+        return paymentCount;
+    }
+
+    public void setPaymentCount(Integer paymentCount) {
+        this.paymentCount = paymentCount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
+    // Helper methods
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public Money getRemaining() {
+        return paid.isLessThan(due) ? due.minus(paid) : Money.ZERO;
+    }
+
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public boolean isFullyPaid() {
+        return paymentCount > 0 && !paid.isLessThan(due);
+    }
+}
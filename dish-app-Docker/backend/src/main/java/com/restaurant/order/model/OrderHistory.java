@@ -0,0 +1,127 @@
+package com.restaurant.order.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Pedido encerrado (PAID ou CANCELLED) movido da tabela orders pelo OrderArchiver
+@Entity
+@Table(name = "orders_history")
+public class OrderHistory {
+    @Id
+    private Long id;
+
+    @Column(name = "table_number", nullable = false)
+    private Integer tableNumber;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderStatus status;
+
+    @Column(name = "total_amount_cents", nullable = false)
+    private Money totalAmount;
+
+    // Saldo que estava em order_balances quando o pedido foi arquivado
+    @Column(name = "paid_cents", nullable = false)
+    private Money paid = Money.ZERO;
+
+    @Column(name = "payment_count", nullable = false)
+    private Integer paymentCount = 0;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "closed_at")
+    private LocalDateTime closedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+
+    // JSON completo (cabeçalho e itens) no mesmo formato devolvido pela API
+    @Lob
+    @Column(name = "payload", nullable = false)
+    private String payload;
+
+    // Constructors
+    public OrderHistory() {}
+
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getTableNumber() {
+        return tableNumber;
+    }
+
+    public void setTableNumber(Integer tableNumber) {
+        this.tableNumber = tableNumber;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(OrderStatus status) {
+        this.status = status;
+    }
+
+    public Money getTotalAmount() {
+        return totalAmount;
+    }
+
+    public void setTotalAmount(Money totalAmount) {
+        this.totalAmount = totalAmount;
+    }
+
+    public Money getPaid() {
+        return paid;
+    }
+
+    public void setPaid(Money paid) {
+        this.paid = paid;
+    }
+
+    public Integer getPaymentCount() {
+        return paymentCount;
+    }
+
+    public void setPaymentCount(Integer paymentCount) {
+        this.paymentCount = paymentCount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getClosedAt() {
+        return closedAt;
+    }
+
+    public void setClosedAt(LocalDateTime closedAt) {
+        this.closedAt = closedAt;
+    }
+
+    public LocalDateTime getArchivedAt() {
+        return archivedAt;
+    }
+
+    public void setArchivedAt(LocalDateTime archivedAt) {
+        this.archivedAt = archivedAt;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+}
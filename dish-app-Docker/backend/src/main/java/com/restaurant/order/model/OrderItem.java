@@ -2,13 +2,15 @@ package com.restaurant.order.model;
 
 import jakarta.persistence.*;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.annotation.PostConstruct;
 
 @Entity
 @Table(name = "order_items")
 public class OrderItem {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "dish_id", nullable = false)
@@ -20,11 +22,11 @@ public class OrderItem {
     @Column(nullable = false)
     private Integer quantity;
     
-    @Column(name = "unit_price", nullable = false)
-    private Double unitPrice;
+    @Column(name = "unit_price_cents", nullable = false)
+    private Money unitPrice;
     
-    @Column(name = "total_price", nullable = false)
-    private Double totalPrice;
+    @Column(name = "total_price_cents", nullable = false)
+    private Money totalPrice;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id")
@@ -34,12 +36,12 @@ public class OrderItem {
     // Constructors
     public OrderItem() {}
     
-    public OrderItem(Long dishId, String dishName, Integer quantity, Double unitPrice) {
+    public OrderItem(Long dishId, String dishName, Integer quantity, Money unitPrice) {
         this.dishId = dishId;
         this.dishName = dishName;
         this.quantity = quantity;
         this.unitPrice = unitPrice;
-        this.totalPrice = quantity * unitPrice;
+        this.totalPrice = unitPrice.times(quantity);
     }
     
     // Getters and Setters
@@ -56,7 +58,13 @@ public class OrderItem {
     }
     
     public void setDishId(Long dishId) {
+        if (order != null) {
+            order.beforeItemChange(this);
+        }
         this.dishId = dishId;
+        if (order != null) {
+            order.afterItemChange(this);
+        }
     }
     
     public String getDishName() {
@@ -72,29 +80,49 @@ public class OrderItem {
     }
     
     public void setQuantity(Integer quantity) {
+        if (order != null) {
+            order.beforeItemChange(this);
+        }
         this.quantity = quantity;
         if (this.unitPrice != null) {
-            this.totalPrice = this.quantity * this.unitPrice;
+            this.totalPrice = this.unitPrice.times(this.quantity);
+        }
+        if (order != null) {
+            order.afterItemChange(this);
         }
     }
     
-    public Double getUnitPrice() {
+    public Money getUnitPrice() {
         return unitPrice;
     }
     
-    public void setUnitPrice(Double unitPrice) {
+    public void setUnitPrice(Money unitPrice) {
+        if (order != null) {
+            order.beforeItemChange(this);
+        }
         this.unitPrice = unitPrice;
-        if (this.quantity != null) {
-            this.totalPrice = this.quantity * this.unitPrice;
+        if (this.quantity != null && this.unitPrice != null) {
+            this.totalPrice = this.unitPrice.times(this.quantity);
+        }
+        if (order != null) {
+            order.afterItemChange(this);
         }
     }
     
-    public Double getTotalPrice() {
+    // Derivado de quantidade x preço unitário; valor enviado pelo cliente é ignorado
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public Money getTotalPrice() {
         return totalPrice;
     }
     
-    public void setTotalPrice(Double totalPrice) {
+    public void setTotalPrice(Money totalPrice) {
+        if (order != null) {
+            order.beforeItemChange(this);
+        }
         this.totalPrice = totalPrice;
+        if (order != null) {
+            order.afterItemChange(this);
+        }
     }
     
     public Order getOrder() {
@@ -108,7 +136,7 @@ public class OrderItem {
     @PostConstruct
     public void calculateTotalPrice() {
         if (this.quantity != null && this.unitPrice != null) {
-            this.totalPrice = this.quantity * this.unitPrice;
+            setTotalPrice(this.unitPrice.times(this.quantity));
         }
     }
 }
@@ -1,20 +1,22 @@
 package com.restaurant.order.model;
 
 import jakarta.persistence.*;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "payments")
 public class Payment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payments_seq")
+    @SequenceGenerator(name = "payments_seq", sequenceName = "payments_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "order_id", nullable = false)
     private Long orderId;
     
-    @Column(name = "amount", nullable = false)
-    private Double amount;
+    @Column(name = "amount_cents", nullable = false)
+    private Money amount;
     
     @Enumerated(EnumType.STRING)
     @Column(name = "payment_method", nullable = false)
@@ -30,11 +32,11 @@ public class Payment {
     @Column(name = "card_last_four")
     private String cardLastFour;
     
-    @Column(name = "cash_received")
-    private Double cashReceived;
+    @Column(name = "cash_received_cents")
+    private Money cashReceived;
     
-    @Column(name = "change_amount")
-    private Double changeAmount;
+    @Column(name = "change_amount_cents")
+    private Money changeAmount;
     
     @Column(name = "notes")
     private String notes;
@@ -42,6 +44,10 @@ public class Payment {
     @Column(name = "processed_by")
     private String processedBy;
     
+    @Version
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
@@ -88,7 +94,7 @@ public class Payment {
     // Constructors
     public Payment() {}
     
-    public Payment(Long orderId, Double amount, PaymentMethod paymentMethod) {
+    public Payment(Long orderId, Money amount, PaymentMethod paymentMethod) {
         this.orderId = orderId;
         this.amount = amount;
         this.paymentMethod = paymentMethod;
@@ -104,6 +110,14 @@ public class Payment {
         this.id = id;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public Long getOrderId() {
         return orderId;
     }
@@ -112,11 +126,11 @@ public class Payment {
         this.orderId = orderId;
     }
     
-    public Double getAmount() {
+    public Money getAmount() {
         return amount;
     }
     
-    public void setAmount(Double amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
     
@@ -155,22 +169,22 @@ public class Payment {
         this.cardLastFour = cardLastFour;
     }
     
-    public Double getCashReceived() {
+    public Money getCashReceived() {
         return cashReceived;
     }
     
-    public void setCashReceived(Double cashReceived) {
+    public void setCashReceived(Money cashReceived) {
         this.cashReceived = cashReceived;
         if (cashReceived != null && amount != null) {
-            this.changeAmount = cashReceived - amount;
+            this.changeAmount = cashReceived.minus(amount);
         }
     }
     
-    public Double getChangeAmount() {
+    public Money getChangeAmount() {
         return changeAmount;
     }
     
-    public void setChangeAmount(Double changeAmount) {
+    public void setChangeAmount(Money changeAmount) {
         this.changeAmount = changeAmount;
     }
     
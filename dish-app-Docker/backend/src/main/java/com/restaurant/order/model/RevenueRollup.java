@@ -0,0 +1,105 @@
+package com.restaurant.order.model;
+
+import com.restaurant.order.model.Payment.PaymentMethod;
+import jakarta.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Objects;
+
+// Soma e contagem dos pagamentos COMPLETED por hora (created_at), método e operador; mantida pelo RevenueRollupService
+@Entity
+@Table(name = "revenue_rollups")
+public class RevenueRollup {
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "total_cents", nullable = false)
+    private long totalCents;
+
+    @Column(name = "payment_count", nullable = false)
+    private long paymentCount;
+
+    // Constructors
+    public RevenueRollup() {}
+
+    public RevenueRollup(Key id) {
+        this.id = id;
+    }
+
+    // Getters and Setters
+    public Key getId() {
+        return id;
+    }
+
+    public void setId(Key id) {
+        this.id = id;
+    }
+
+    public long getTotalCents() {
+        return totalCents;
+    }
+
+    public void setTotalCents(long totalCents) {
+        this.totalCents = totalCents;
+    }
+
+    public long getPaymentCount() {
+        return paymentCount;
+    }
+
+    public void setPaymentCount(long paymentCount) {
+        this.paymentCount = paymentCount;
+    }
+
+    @Embeddable
+    public static class Key implements Serializable {
+        @Column(name = "bucket_start", nullable = false)
+        private LocalDateTime bucketStart;
+
+        @Enumerated(EnumType.STRING)
+        @Column(name = "payment_method", nullable = false, length = 32)
+        private PaymentMethod paymentMethod;
+
+        // Pagamentos sem operador ficam com "" para a coluna poder fazer parte da chave
+        @Column(name = "processed_by", nullable = false)
+        private String processedBy;
+
+        public Key() {}
+
+        public Key(LocalDateTime bucketStart, PaymentMethod paymentMethod, String processedBy) {
+            this.bucketStart = bucketStart;
+            this.paymentMethod = paymentMethod;
+            this.processedBy = processedBy;
+        }
+
+        public LocalDateTime getBucketStart() {
+            return bucketStart;
+        }
+
+        public PaymentMethod getPaymentMethod() {
+            return paymentMethod;
+        }
+
+        public String getProcessedBy() {
+            return processedBy;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return Objects.equals(bucketStart, other.bucketStart)
+                && paymentMethod == other.paymentMethod
+                && Objects.equals(processedBy, other.processedBy);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(bucketStart, paymentMethod, processedBy);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.restaurant.order.model;
+
+import java.util.Locale;
+
+// Praça da cozinha responsável pelo preparo de um prato
+public enum Station {
+    GRILL("Chapa"),
+    FRYER("Fritadeira"),
+    SALAD("Saladas"),
+    BAR("Bar");
+    
+    private final String description;
+    
+    Station(String description) {
+        this.description = description;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    // Aceita o nome em qualquer caixa, como em /kitchen/stations/grill/queue
+    public static Station fromPath(String value) {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,9 @@
+package com.restaurant.order.repository;
+
+import com.restaurant.order.model.KitchenOrderHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface KitchenOrderHistoryRepository extends JpaRepository<KitchenOrderHistory, Long> {
+}
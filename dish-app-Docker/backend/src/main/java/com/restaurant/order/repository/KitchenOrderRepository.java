@@ -1,48 +1,113 @@
 package com.restaurant.order.repository;
 
+import com.restaurant.order.dto.KitchenOrderSummary;
+import com.restaurant.order.dto.PageCursor;
 import com.restaurant.order.model.KitchenOrder;
 import com.restaurant.order.model.OrderStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface KitchenOrderRepository extends JpaRepository<KitchenOrder, Long> {
     
+    // Itens são LAZY; as consultas que devolvem comandas completas buscam os itens no mesmo SELECT
+    @Override
+    @EntityGraph("KitchenOrder.items")
+    List<KitchenOrder> findAll();
+    
+    @EntityGraph("KitchenOrder.items")
+    Optional<KitchenOrder> findWithItemsById(Long id);
+    
+    @EntityGraph("KitchenOrder.items")
     List<KitchenOrder> findByStatus(OrderStatus status);
     
+    @EntityGraph("KitchenOrder.items")
     List<KitchenOrder> findByTableNumber(Integer tableNumber);
     
+    @EntityGraph("KitchenOrder.items")
     Optional<KitchenOrder> findByOrderId(Long orderId);
     
+    @EntityGraph("KitchenOrder.items")
     @Query("SELECT ko FROM KitchenOrder ko WHERE ko.status IN ('NEW', 'PREPARING', 'READY') ORDER BY ko.priority DESC, ko.createdAt ASC")
     List<KitchenOrder> findActiveKitchenOrders();
     
+    @EntityGraph("KitchenOrder.items")
     @Query("SELECT ko FROM KitchenOrder ko WHERE ko.status = 'NEW' ORDER BY ko.priority DESC, ko.createdAt ASC")
     List<KitchenOrder> findNewOrders();
     
+    @EntityGraph("KitchenOrder.items")
     @Query("SELECT ko FROM KitchenOrder ko WHERE ko.status = 'PREPARING' ORDER BY ko.startedAt ASC")
     List<KitchenOrder> findPreparingOrders();
     
+    @EntityGraph("KitchenOrder.items")
     @Query("SELECT ko FROM KitchenOrder ko WHERE ko.status = 'READY' ORDER BY ko.readyAt ASC")
     List<KitchenOrder> findReadyOrders();
     
+    @EntityGraph("KitchenOrder.items")
     @Query("SELECT ko FROM KitchenOrder ko WHERE ko.status = 'DELIVERED' AND ko.updatedAt >= :since ORDER BY ko.updatedAt DESC")
     List<KitchenOrder> findRecentlyDeliveredOrders(@Param("since") LocalDateTime since);
     
+    @EntityGraph("KitchenOrder.items")
     @Query("SELECT ko FROM KitchenOrder ko WHERE ko.priority = :priority ORDER BY ko.createdAt ASC")
     List<KitchenOrder> findByPriority(@Param("priority") Integer priority);
     
+    @Query("SELECT new com.restaurant.order.dto.KitchenOrderSummary(ko.id, ko.orderId, ko.tableNumber, ko.customerName, ko.status, ko.priority, ko.estimatedTime, ko.totalAmount, ko.createdAt) FROM KitchenOrder ko WHERE ko.status = :status ORDER BY ko.createdAt DESC, ko.id DESC")
+    List<KitchenOrderSummary> findSummariesByStatus(@Param("status") OrderStatus status);
+    
     @Query("SELECT COUNT(ko) FROM KitchenOrder ko WHERE ko.status = :status")
     Long countByStatus(@Param("status") OrderStatus status);
     
+    // Carga inicial do PrepTimeAnalytics: [kitchenOrderId, dishId, dishName, startedAt, readyAt], uma linha por item
+    @Query("SELECT ko.id, i.dishId, i.dishName, ko.startedAt, ko.readyAt FROM KitchenOrderItem i JOIN i.kitchenOrder ko WHERE ko.status IN ('READY', 'DELIVERED', 'PAID') AND ko.readyAt >= :since AND ko.readyAt < :before AND ko.startedAt IS NOT NULL")
+    List<Object[]> findPrepTimes(@Param("since") LocalDateTime since, @Param("before") LocalDateTime before);
+    
+    @EntityGraph("KitchenOrder.items")
     @Query("SELECT ko FROM KitchenOrder ko WHERE ko.createdAt >= :startDate AND ko.createdAt <= :endDate ORDER BY ko.createdAt DESC")
     List<KitchenOrder> findOrdersByDateRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
     
+    @EntityGraph("KitchenOrder.items")
     @Query("SELECT ko FROM KitchenOrder ko WHERE ko.tableNumber = :tableNumber AND ko.status IN ('NEW', 'PREPARING', 'READY', 'DELIVERED') ORDER BY ko.createdAt DESC")
     List<KitchenOrder> findActiveOrdersByTable(@Param("tableNumber") Integer tableNumber);
+    
+    // Candidatos ao arquivamento: a comanda termina em DELIVERED ou CANCELLED (PAID só existe no pedido)
+    @Query("SELECT ko.id FROM KitchenOrder ko WHERE ko.status IN ('DELIVERED', 'PAID', 'CANCELLED') AND ko.updatedAt < :before ORDER BY ko.updatedAt ASC, ko.id ASC")
+    List<Long> findArchivableIds(@Param("before") LocalDateTime before, Pageable pageable);
+    
+    @EntityGraph("KitchenOrder.items")
+    List<KitchenOrder> findByIdIn(Collection<Long> ids);
+    
+    // Paginação por chave (createdAt, id): o custo de cada página não depende da posição
+    // (o createdAt <= :createdAt vira faixa no índice (created_at, id); o OR sozinho forçaria varredura)
+    @Query("SELECT ko FROM KitchenOrder ko ORDER BY ko.createdAt DESC, ko.id DESC")
+    List<KitchenOrder> findFirstPage(Pageable pageable);
+    
+    @Query("SELECT ko FROM KitchenOrder ko WHERE ko.createdAt <= :createdAt AND (ko.createdAt < :createdAt OR ko.id < :id) ORDER BY ko.createdAt DESC, ko.id DESC")
+    List<KitchenOrder> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    // Exportação em blocos: só as chaves, na mesma ordem; as comandas com itens vêm depois por findByIdIn
+    @Query("SELECT new com.restaurant.order.dto.PageCursor(ko.createdAt, ko.id) FROM KitchenOrder ko ORDER BY ko.createdAt DESC, ko.id DESC")
+    List<PageCursor> findFirstKeys(Pageable pageable);
+    
+    @Query("SELECT new com.restaurant.order.dto.PageCursor(ko.createdAt, ko.id) FROM KitchenOrder ko WHERE ko.createdAt <= :createdAt AND (ko.createdAt < :createdAt OR ko.id < :id) ORDER BY ko.createdAt DESC, ko.id DESC")
+    List<PageCursor> findKeysAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    @Query("SELECT ko FROM KitchenOrder ko WHERE ko.createdAt >= :startDate AND ko.createdAt <= :endDate ORDER BY ko.createdAt DESC, ko.id DESC")
+    List<KitchenOrder> findDateRangeFirstPage(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate, Pageable pageable);
+    
+    @Query("SELECT ko FROM KitchenOrder ko WHERE ko.createdAt >= :startDate AND ko.createdAt <= :endDate AND ko.createdAt <= :createdAt AND (ko.createdAt < :createdAt OR ko.id < :id) ORDER BY ko.createdAt DESC, ko.id DESC")
+    List<KitchenOrder> findDateRangePageAfter(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    @Query("SELECT new com.restaurant.order.dto.PageCursor(ko.createdAt, ko.id) FROM KitchenOrder ko WHERE ko.createdAt >= :startDate AND ko.createdAt <= :endDate ORDER BY ko.createdAt DESC, ko.id DESC")
+    List<PageCursor> findDateRangeFirstKeys(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate, Pageable pageable);
+    
+    @Query("SELECT new com.restaurant.order.dto.PageCursor(ko.createdAt, ko.id) FROM KitchenOrder ko WHERE ko.createdAt >= :startDate AND ko.createdAt <= :endDate AND ko.createdAt <= :createdAt AND (ko.createdAt < :createdAt OR ko.id < :id) ORDER BY ko.createdAt DESC, ko.id DESC")
+    List<PageCursor> findDateRangeKeysAfter(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
 }
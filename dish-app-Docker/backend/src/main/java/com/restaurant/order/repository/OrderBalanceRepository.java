@@ -0,0 +1,30 @@
+package com.restaurant.order.repository;
+
+import com.restaurant.order.model.OrderBalance;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderBalanceRepository extends JpaRepository<OrderBalance, Long> {
+
+    // Atualizações pela chave primária direto no banco; retornam 0 quando o pedido ainda não tem saldo
+    @Modifying
+    @Query(value = "UPDATE order_balances SET due_cents = :dueCents, updated_at = :now WHERE order_id = :orderId", nativeQuery = true)
+    int updateDue(@Param("orderId") Long orderId, @Param("dueCents") long dueCents, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = "UPDATE order_balances SET paid_cents = paid_cents + :cents, payment_count = payment_count + :payments, updated_at = :now WHERE order_id = :orderId", nativeQuery = true)
+    int addPaid(@Param("orderId") Long orderId, @Param("cents") long cents, @Param("payments") int payments, @Param("now") LocalDateTime now);
+
+    // Arquivamento: trava os saldos do lote para que um pagamento concorrente espere e caia no histórico
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<OrderBalance> findByOrderIdIn(Collection<Long> orderIds);
+}
@@ -0,0 +1,17 @@
+package com.restaurant.order.repository;
+
+import com.restaurant.order.model.OrderHistory;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OrderHistoryRepository extends JpaRepository<OrderHistory, Long> {
+
+    // Pagamento estornado ou concluído depois que o pedido foi arquivado; 0 se o pedido não está no histórico
+    @Modifying
+    @Query(value = "UPDATE orders_history SET paid_cents = paid_cents + :cents, payment_count = payment_count + :payments WHERE id = :orderId", nativeQuery = true)
+    int addPaid(@Param("orderId") Long orderId, @Param("cents") long cents, @Param("payments") int payments);
+}
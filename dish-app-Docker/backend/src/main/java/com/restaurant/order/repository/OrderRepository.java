@@ -1,23 +1,73 @@
 package com.restaurant.order.repository;
 
+import com.restaurant.order.dto.OrderSummary;
+import com.restaurant.order.dto.PageCursor;
 import com.restaurant.order.model.Order;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
     
+    // Itens são LAZY; as consultas que devolvem pedidos completos buscam os itens no mesmo SELECT
+    @Override
+    @EntityGraph("Order.items")
+    List<Order> findAll();
+    
+    @EntityGraph("Order.items")
+    Optional<Order> findWithItemsById(Long id);
+    
+    @EntityGraph("Order.items")
     List<Order> findByTableNumber(Integer tableNumber);
     
+    @EntityGraph("Order.items")
     List<Order> findByStatus(com.restaurant.order.model.OrderStatus status);
     
-    @Query("SELECT o FROM Order o WHERE o.status IN ('OPEN', 'IN_PROGRESS') ORDER BY o.createdAt DESC")
+    @Query("SELECT new com.restaurant.order.dto.OrderSummary(o.id, o.tableNumber, o.customerName, o.status, o.totalAmount, o.createdAt) FROM Order o ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummary> findSummaries();
+    
+    @Query("SELECT new com.restaurant.order.dto.OrderSummary(o.id, o.tableNumber, o.customerName, o.status, o.totalAmount, o.createdAt) FROM Order o WHERE o.status = :status ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummary> findSummariesByStatus(@Param("status") com.restaurant.order.model.OrderStatus status);
+    
+    // Ativo = ainda não pago nem cancelado (OrderStatus.isActive)
+    @EntityGraph("Order.items")
+    @Query("SELECT o FROM Order o WHERE o.status IN ('NEW', 'PREPARING', 'READY', 'DELIVERED') ORDER BY o.createdAt DESC")
     List<Order> findActiveOrders();
     
-    @Query("SELECT o FROM Order o WHERE o.tableNumber = :tableNumber AND o.status IN ('OPEN', 'IN_PROGRESS')")
+    @Query("SELECT new com.restaurant.order.dto.OrderSummary(o.id, o.tableNumber, o.customerName, o.status, o.totalAmount, o.createdAt) FROM Order o WHERE o.status IN ('NEW', 'PREPARING', 'READY', 'DELIVERED')")
+    List<OrderSummary> findActiveSummaries();
+    
+    @EntityGraph("Order.items")
+    @Query("SELECT o FROM Order o WHERE o.tableNumber = :tableNumber AND o.status IN ('NEW', 'PREPARING', 'READY', 'DELIVERED')")
     List<Order> findActiveOrdersByTable(@Param("tableNumber") Integer tableNumber);
+    
+    // Candidatos ao arquivamento: encerrados há mais tempo que o corte, os mais antigos primeiro
+    @Query("SELECT o.id FROM Order o WHERE o.status IN ('PAID', 'CANCELLED') AND o.updatedAt < :before ORDER BY o.updatedAt ASC, o.id ASC")
+    List<Long> findArchivableIds(@Param("before") LocalDateTime before, Pageable pageable);
+    
+    @EntityGraph("Order.items")
+    List<Order> findByIdIn(Collection<Long> ids);
+    
+    // Paginação por chave (createdAt, id): o custo de cada página não depende da posição
+    // (o createdAt <= :createdAt vira faixa no índice (created_at, id); o OR sozinho forçaria varredura)
+    @Query("SELECT o FROM Order o ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findFirstPage(Pageable pageable);
+    
+    @Query("SELECT o FROM Order o WHERE o.createdAt <= :createdAt AND (o.createdAt < :createdAt OR o.id < :id) ORDER BY o.createdAt DESC, o.id DESC")
+    List<Order> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    // Exportação em blocos: só as chaves, na mesma ordem; os pedidos com itens vêm depois por findByIdIn
+    @Query("SELECT new com.restaurant.order.dto.PageCursor(o.createdAt, o.id) FROM Order o ORDER BY o.createdAt DESC, o.id DESC")
+    List<PageCursor> findFirstKeys(Pageable pageable);
+    
+    @Query("SELECT new com.restaurant.order.dto.PageCursor(o.createdAt, o.id) FROM Order o WHERE o.createdAt <= :createdAt AND (o.createdAt < :createdAt OR o.id < :id) ORDER BY o.createdAt DESC, o.id DESC")
+    List<PageCursor> findKeysAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
 }
-
@@ -3,12 +3,17 @@ package com.restaurant.order.repository;
 import com.restaurant.order.model.Payment;
 import com.restaurant.order.model.Payment.PaymentStatus;
 import com.restaurant.order.model.Payment.PaymentMethod;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
@@ -22,15 +27,35 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
     @Query("SELECT p FROM Payment p WHERE p.orderId = :orderId AND p.status = 'COMPLETED'")
     List<Payment> findCompletedPaymentsByOrderId(@Param("orderId") Long orderId);
     
-    @Query("SELECT SUM(p.amount) FROM Payment p WHERE p.status = 'COMPLETED' AND p.createdAt >= :startDate AND p.createdAt <= :endDate")
-    Double getTotalRevenueByDateRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    // Somas em centavos direto na coluna BIGINT: exatas e sem ponto flutuante
+    @Query(value = "SELECT COALESCE(SUM(p.amount_cents), 0) FROM payments p WHERE p.status = 'COMPLETED' AND p.created_at >= :startDate AND p.created_at <= :endDate", nativeQuery = true)
+    Long getTotalRevenueCentsByDateRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
     
-    @Query("SELECT p.paymentMethod, SUM(p.amount) FROM Payment p WHERE p.status = 'COMPLETED' AND p.createdAt >= :startDate AND p.createdAt <= :endDate GROUP BY p.paymentMethod")
-    List<Object[]> getRevenueByPaymentMethod(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
+    @Query(value = "SELECT p.payment_method, SUM(p.amount_cents) FROM payments p WHERE p.status = 'COMPLETED' AND p.created_at >= :startDate AND p.created_at <= :endDate GROUP BY p.payment_method", nativeQuery = true)
+    List<Object[]> getRevenueCentsByPaymentMethod(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
     
     @Query("SELECT COUNT(p) FROM Payment p WHERE p.status = 'COMPLETED' AND p.createdAt >= :startDate AND p.createdAt <= :endDate")
     Long countCompletedPaymentsByDateRange(@Param("startDate") LocalDateTime startDate, @Param("endDate") LocalDateTime endDate);
     
+    // Bordas dos relatórios (horas incompletas) que os buckets de revenue_rollups não cobrem; mesmo formato do summarizeBuckets
+    @Query(value = "SELECT p.payment_method, COALESCE(p.processed_by, ''), SUM(p.amount_cents), COUNT(*) FROM payments p WHERE p.status = 'COMPLETED' AND p.created_at >= :from AND p.created_at < :before GROUP BY p.payment_method, COALESCE(p.processed_by, '')", nativeQuery = true)
+    List<Object[]> summarizeCompletedBefore(@Param("from") LocalDateTime from, @Param("before") LocalDateTime before);
+    
+    @Query(value = "SELECT p.payment_method, COALESCE(p.processed_by, ''), SUM(p.amount_cents), COUNT(*) FROM payments p WHERE p.status = 'COMPLETED' AND p.created_at >= :from AND p.created_at <= :through GROUP BY p.payment_method, COALESCE(p.processed_by, '')", nativeQuery = true)
+    List<Object[]> summarizeCompletedThrough(@Param("from") LocalDateTime from, @Param("through") LocalDateTime through);
+    
     @Query("SELECT p FROM Payment p WHERE p.processedBy = :processedBy ORDER BY p.processedAt DESC")
     List<Payment> findByProcessedBy(@Param("processedBy") String processedBy);
+    
+    // Paginação por chave (createdAt, id): o custo de cada página não depende da posição
+    // (o createdAt <= :createdAt vira faixa no índice (created_at, id); o OR sozinho forçaria varredura)
+    @Query("SELECT p FROM Payment p ORDER BY p.createdAt DESC, p.id DESC")
+    List<Payment> findFirstPage(Pageable pageable);
+    
+    @Query("SELECT p FROM Payment p WHERE p.createdAt <= :createdAt AND (p.createdAt < :createdAt OR p.id < :id) ORDER BY p.createdAt DESC, p.id DESC")
+    List<Payment> findPageAfter(@Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+    
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "100"))
+    @Query("SELECT p FROM Payment p ORDER BY p.createdAt DESC, p.id DESC")
+    Stream<Payment> streamAll();
 }
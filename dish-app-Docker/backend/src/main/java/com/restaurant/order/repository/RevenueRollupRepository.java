@@ -0,0 +1,29 @@
+package com.restaurant.order.repository;
+
+import com.restaurant.order.model.Payment.PaymentMethod;
+import com.restaurant.order.model.RevenueRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RevenueRollupRepository extends JpaRepository<RevenueRollup, RevenueRollup.Key> {
+
+    // Incremento atômico no banco; retorna 0 quando o bucket ainda não existe
+    @Modifying
+    @Query("UPDATE RevenueRollup r SET r.totalCents = r.totalCents + :cents, r.paymentCount = r.paymentCount + :count " +
+           "WHERE r.id.bucketStart = :bucketStart AND r.id.paymentMethod = :paymentMethod AND r.id.processedBy = :processedBy")
+    int increment(@Param("bucketStart") LocalDateTime bucketStart, @Param("paymentMethod") PaymentMethod paymentMethod,
+                  @Param("processedBy") String processedBy, @Param("cents") long cents, @Param("count") long count);
+
+    // Linhas [método, operador, centavos, quantidade] das horas cheias em [from, before); buckets zerados por
+    // estorno ou exclusão continuam na tabela, mas não aparecem no relatório, igual às consultas diretas
+    @Query("SELECT r.id.paymentMethod, r.id.processedBy, SUM(r.totalCents), SUM(r.paymentCount) FROM RevenueRollup r " +
+           "WHERE r.id.bucketStart >= :from AND r.id.bucketStart < :before GROUP BY r.id.paymentMethod, r.id.processedBy " +
+           "HAVING SUM(r.paymentCount) <> 0")
+    List<Object[]> summarizeBuckets(@Param("from") LocalDateTime from, @Param("before") LocalDateTime before);
+}
@@ -0,0 +1,53 @@
+package com.restaurant.order.service;
+
+import com.restaurant.order.dto.PageCursor;
+import jakarta.persistence.EntityManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Percorre uma listagem inteira em blocos pela chave (createdAt, id), para as exportações NDJSON.
+ *
+ * Cada bloco custa duas consultas: as chaves, sem carregar entidades, e as entidades
+ * por id com os itens pelo entity graph. Depois de entregue, o bloco sai do contexto
+ * de persistência, então a memória fica no tamanho do bloco e os itens não são
+ * buscados um registro por vez.
+ */
+final class ChunkedExport {
+
+    static final int CHUNK_SIZE = 200;
+
+    private ChunkedExport() {
+    }
+
+    // keysAfter recebe null no primeiro bloco e devolve as chaves na ordem da exportação
+    static <T> void forEach(EntityManager entityManager,
+                            Function<PageCursor, List<PageCursor>> keysAfter,
+                            Function<List<Long>, List<T>> loadWithItems,
+                            Function<T, Long> idOf,
+                            Consumer<T> action) {
+        List<PageCursor> keys = keysAfter.apply(null);
+        while (!keys.isEmpty()) {
+            Map<Long, T> byId = new HashMap<>();
+            for (T entity : loadWithItems.apply(keys.stream().map(PageCursor::id).toList())) {
+                byId.put(idOf.apply(entity), entity);
+            }
+            for (PageCursor key : keys) {
+                // Removido entre as duas consultas: só fica de fora
+                T entity = byId.get(key.id());
+                if (entity != null) {
+                    action.accept(entity);
+                }
+            }
+            entityManager.clear();
+            if (keys.size() < CHUNK_SIZE) {
+                return;
+            }
+            keys = keysAfter.apply(keys.get(keys.size() - 1));
+        }
+    }
+}
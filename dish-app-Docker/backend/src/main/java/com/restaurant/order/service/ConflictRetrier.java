@@ -0,0 +1,90 @@
+package com.restaurant.order.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Repete uma operação transacional quando ela perde a corrida do @Version.
+ *
+ * Deve envolver a chamada ao serviço por fora da transação: cada tentativa relê o
+ * pedido já com a versão nova e reaplica a alteração. Só serve para operações que
+ * podem ser refeitas do zero (adicionar item, mudar quantidade, mudar status);
+ * depois de esgotar as tentativas a exceção segue para o controller, que responde 409.
+ */
+@Component
+public class ConflictRetrier {
+
+    private static final Logger log = LoggerFactory.getLogger(ConflictRetrier.class);
+
+    @Value("${concurrency.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${concurrency.retry.initial-backoff-ms:10}")
+    private long initialBackoffMs;
+
+    @Value("${concurrency.retry.max-backoff-ms:200}")
+    private long maxBackoffMs;
+
+    private final AtomicLong conflicts = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong exhausted = new AtomicLong();
+
+    public <T> T run(Supplier<T> action) {
+        // Dentro de uma transação já aberta a releitura veria o mesmo estado: não adianta repetir
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return action.get();
+        }
+
+        long backoff = initialBackoffMs;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.incrementAndGet();
+                if (attempt >= maxAttempts) {
+                    exhausted.incrementAndGet();
+                    log.warn("Conflito de versão persistiu após {} tentativas: {}", attempt, e.getMessage());
+                    throw e;
+                }
+                retries.incrementAndGet();
+                pause(backoff, e);
+                backoff = Math.min(backoff * 2, maxBackoffMs);
+            }
+        }
+    }
+
+    public void run(Runnable action) {
+        run(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("conflicts", conflicts.get());
+        stats.put("retries", retries.get());
+        stats.put("exhausted", exhausted.get());
+        return stats;
+    }
+
+    // Espera aleatória em [backoff/2, backoff] para que os concorrentes não tentem juntos de novo
+    private void pause(long backoff, OptimisticLockingFailureException cause) {
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(backoff / 2, backoff + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+}
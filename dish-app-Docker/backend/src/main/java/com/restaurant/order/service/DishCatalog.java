@@ -0,0 +1,95 @@
+package com.restaurant.order.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restaurant.order.event.DishCatalogChangedEvent;
+import com.restaurant.order.model.Dish;
+import com.restaurant.order.repository.DishRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.DigestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Snapshot do cardápio em memória.
+ *
+ * O cardápio muda poucas vezes por dia, então a lista de pratos é lida do banco
+ * uma vez, serializada para JSON e guardada junto com o ETag. As leituras seguintes
+ * devolvem os mesmos bytes sem passar pelo banco nem pelo Jackson. Qualquer escrita
+ * no DishService descarta o snapshot depois do commit.
+ */
+@Component
+public class DishCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(DishCatalog.class);
+
+    @Autowired
+    private DishRepository dishRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final AtomicLong generation = new AtomicLong();
+    // Lock explícito: com threads virtuais, um synchronized em volta da consulta prenderia a thread portadora
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile Snapshot current;
+
+    public Snapshot getSnapshot() {
+        Snapshot snapshot = current;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        loadLock.lock();
+        try {
+            snapshot = current;
+            if (snapshot != null) {
+                return snapshot;
+            }
+            long loadedGeneration = generation.get();
+            snapshot = load(loadedGeneration);
+            // Se houve commit durante a leitura o snapshot pode estar velho: serve, mas não guarda
+            if (generation.get() == loadedGeneration) {
+                current = snapshot;
+            }
+            return snapshot;
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    public List<Dish> getDishes() {
+        return getSnapshot().dishes();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDishCatalogChanged(DishCatalogChangedEvent event) {
+        invalidate();
+    }
+
+    public void invalidate() {
+        generation.incrementAndGet();
+        current = null;
+    }
+
+    private Snapshot load(long loadedGeneration) {
+        List<Dish> dishes = List.copyOf(dishRepository.findAll());
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(dishes);
+            String etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+            log.debug("Cardápio carregado: {} pratos, ETag {}", dishes.size(), etag);
+            return new Snapshot(loadedGeneration, dishes, json, etag);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Erro ao serializar o cardápio", e);
+        }
+    }
+
+    // json e etag descrevem exatamente a lista dishes; o array não deve ser alterado por quem lê
+    public record Snapshot(long generation, List<Dish> dishes, byte[] json, String etag) {
+    }
+}
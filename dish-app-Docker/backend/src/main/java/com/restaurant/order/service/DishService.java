@@ -1,8 +1,14 @@
 package com.restaurant.order.service;
 
+import com.restaurant.order.event.DishCatalogChangedEvent;
 import com.restaurant.order.model.Dish;
+import com.restaurant.order.model.Station;
 import com.restaurant.order.repository.DishRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -11,13 +17,23 @@ import java.util.Optional;
 
 @Service
 @Transactional
+@Timed("restaurant.service")
 public class DishService {
     
+    private static final Logger log = LoggerFactory.getLogger(DishService.class);
+    
     @Autowired
     private DishRepository dishRepository;
     
+    @Autowired
+    private DishCatalog dishCatalog;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    // Servido pelo snapshot em memória; só vai ao banco depois de uma alteração
     public List<Dish> getAllDishes() {
-        return dishRepository.findAll();
+        return dishCatalog.getDishes();
     }
     
     public Optional<Dish> getDishById(Long id) {
@@ -25,7 +41,9 @@ public class DishService {
     }
     
     public Dish createDish(Dish dish) {
-        return dishRepository.save(dish);
+        Dish saved = dishRepository.save(dish);
+        eventPublisher.publishEvent(new DishCatalogChangedEvent(saved.getId()));
+        return saved;
     }
     
     public Dish updateDish(Long id, Dish dishDetails) {
@@ -35,31 +53,36 @@ public class DishService {
             dish.setName(dishDetails.getName());
             dish.setDescription(dishDetails.getDescription());
             dish.setPrice(dishDetails.getPrice());
-            return dishRepository.save(dish);
+            dish.setStation(dishDetails.getStation());
+            Dish saved = dishRepository.save(dish);
+            eventPublisher.publishEvent(new DishCatalogChangedEvent(saved.getId()));
+            return saved;
         }
         throw new RuntimeException("Dish not found with id: " + id);
     }
     
     public void deleteDish(Long id) {
         dishRepository.deleteById(id);
+        eventPublisher.publishEvent(new DishCatalogChangedEvent(id));
     }
     
     public void initializeDefaultDishes() {
         if (dishRepository.count() == 0) {
             // Criar pratos padrão se não existirem
-            Dish pizza = new Dish("Pizza Margherita", "Pizza com molho de tomate, mussarela e manjericão", 25.90);
-            Dish hamburger = new Dish("Hambúrguer Clássico", "Hambúrguer com carne, alface, tomate e queijo", 18.50);
-            Dish salad = new Dish("Salada Caesar", "Salada com alface, croutons, queijo parmesão e molho caesar", 15.90);
-            Dish fries = new Dish("Batata Frita", "Batata frita crocante", 8.90);
-            Dish soda = new Dish("Refrigerante", "Refrigerante gelado", 4.50);
+            Dish pizza = new Dish("Pizza Margherita", "Pizza com molho de tomate, mussarela e manjericão", 25.90, Station.GRILL);
+            Dish hamburger = new Dish("Hambúrguer Clássico", "Hambúrguer com carne, alface, tomate e queijo", 18.50, Station.GRILL);
+            Dish salad = new Dish("Salada Caesar", "Salada com alface, croutons, queijo parmesão e molho caesar", 15.90, Station.SALAD);
+            Dish fries = new Dish("Batata Frita", "Batata frita crocante", 8.90, Station.FRYER);
+            Dish soda = new Dish("Refrigerante", "Refrigerante gelado", 4.50, Station.BAR);
             
             dishRepository.save(pizza);
             dishRepository.save(hamburger);
             dishRepository.save(salad);
             dishRepository.save(fries);
             dishRepository.save(soda);
+            eventPublisher.publishEvent(new DishCatalogChangedEvent(null));
             
-            System.out.println("Pratos padrão inicializados com sucesso!");
+            log.info("Pratos padrão inicializados com sucesso!");
         }
     }
 }
@@ -0,0 +1,192 @@
+package com.restaurant.order.service;
+
+import com.restaurant.order.event.KitchenOrderChangedEvent;
+import com.restaurant.order.model.KitchenOrder;
+import com.restaurant.order.model.KitchenOrderItem;
+import com.restaurant.order.model.OrderItem;
+import com.restaurant.order.model.OrderStatus;
+import com.restaurant.order.repository.KitchenOrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Previsão de quando uma comanda fica pronta.
+ *
+ * O preparo de cada prato é uma média móvel exponencial (eta.ewma-alpha) dos tempos
+ * startedAt -> readyAt observados; prato sem histórico usa o estimatedPrepTime do item
+ * ou eta.default-prep-minutes. Os pratos de uma comanda são feitos em paralelo, então
+ * a comanda leva o tempo do prato mais demorado. A fila à frente vem do KitchenBoard,
+ * na ordem de atendimento: comandas em preparo contam só o que falta, as novas contam
+ * inteiras, e a cozinha toca eta.parallel-orders comandas ao mesmo tempo.
+ *
+ * As previsões das comandas ativas são refeitas numa única passada pelo quadro a cada
+ * mudança confirmada nele (nova comanda, status, prioridade), não a cada consulta.
+ */
+@Component
+public class EtaEstimator {
+
+    private static final Logger log = LoggerFactory.getLogger(EtaEstimator.class);
+
+    @Autowired
+    private KitchenBoard kitchenBoard;
+
+    @Autowired
+    private KitchenOrderRepository kitchenOrderRepository;
+
+    @Value("${eta.ewma-alpha:0.3}")
+    private double alpha;
+
+    @Value("${eta.parallel-orders:3}")
+    private int parallelOrders;
+
+    @Value("${eta.default-prep-minutes:15}")
+    private int defaultPrepMinutes;
+
+    @Value("${analytics.prep-times.bootstrap-hours:24}")
+    private long bootstrapHours;
+
+    // dishId -> média móvel do preparo, em segundos
+    private final Map<Long, Double> prepSeconds = new ConcurrentHashMap<>();
+    // kitchenOrderId -> instante previsto de pronto; trocado inteiro a cada recálculo
+    private volatile Map<Long, LocalDateTime> readyAt = Map.of();
+
+    // Ponto de partida das médias: tempo médio por prato nas comandas prontas recentes
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, long[]> sums = new HashMap<>();
+        for (Object[] row : kitchenOrderRepository.findPrepTimes(now.minusHours(bootstrapHours), now)) {
+            long[] sum = sums.computeIfAbsent((Long) row[1], id -> new long[2]);
+            sum[0] += Duration.between((LocalDateTime) row[3], (LocalDateTime) row[4]).toSeconds();
+            sum[1]++;
+        }
+        sums.forEach((dishId, sum) -> prepSeconds.put(dishId, (double) sum[0] / sum[1]));
+        recompute();
+        log.info("Previsão de preparo iniciada com o histórico de {} pratos", sums.size());
+    }
+
+    // Depois do KitchenBoard (que roda primeiro), então o quadro já reflete a alteração
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onKitchenOrderChanged(KitchenOrderChangedEvent event) {
+        if (event.isStatusChange() && event.getKitchenOrder().getStatus() == OrderStatus.READY) {
+            // A cópia do quadro tem os itens carregados; a do evento pode não ter
+            kitchenBoard.getOrder(event.getKitchenOrderId())
+                .filter(order -> order.getStartedAt() != null && order.getReadyAt() != null)
+                .ifPresent(this::observe);
+        }
+        recompute();
+    }
+
+    // Minutos até ficar pronta uma comanda que ainda vai entrar no quadro
+    public int estimateMinutes(KitchenOrder incoming) {
+        int priority = priorityOf(incoming);
+        double own = 0;
+        for (KitchenOrderItem item : incoming.getItems()) {
+            own = Math.max(own, dishSeconds(item.getDishId(), item.getEstimatedPrepTime()));
+        }
+        return toMinutes(waitSeconds(priority) + own);
+    }
+
+    // Cotação para o cliente ao abrir o pedido, como se fosse para a cozinha agora com prioridade normal
+    public int quoteMinutes(List<OrderItem> items) {
+        double own = 0;
+        for (OrderItem item : items) {
+            own = Math.max(own, dishSeconds(item.getDishId(), null));
+        }
+        return toMinutes(waitSeconds(1) + own);
+    }
+
+    public Optional<Integer> getRemainingMinutes(Long kitchenOrderId) {
+        LocalDateTime eta = readyAt.get(kitchenOrderId);
+        if (eta == null) {
+            return Optional.empty();
+        }
+        return Optional.of(toMinutes(Math.max(0, Duration.between(LocalDateTime.now(), eta).toSeconds())));
+    }
+
+    void observe(KitchenOrder order) {
+        double seconds = Duration.between(order.getStartedAt(), order.getReadyAt()).toSeconds();
+        for (KitchenOrderItem item : order.getItems()) {
+            if (item.getDishId() != null) {
+                prepSeconds.merge(item.getDishId(), seconds, (average, sample) -> average + alpha * (sample - average));
+            }
+        }
+    }
+
+    void recompute() {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, LocalDateTime> etas = new HashMap<>();
+        double queuedSeconds = 0;
+        for (KitchenOrder order : kitchenBoard.getActiveOrders()) {
+            double own = ticketSeconds(order);
+            if (order.getStatus() == OrderStatus.PREPARING) {
+                double remaining = remaining(order, own, now);
+                etas.put(order.getId(), now.plusSeconds(Math.round(remaining)));
+                queuedSeconds += remaining;
+            } else if (order.getStatus() == OrderStatus.NEW) {
+                etas.put(order.getId(), now.plusSeconds(Math.round(queuedSeconds / parallelOrders + own)));
+                queuedSeconds += own;
+            }
+        }
+        readyAt = etas;
+    }
+
+    // Trabalho que passa na frente de uma comanda nova: tudo em preparo e as novas com prioridade igual ou maior
+    private double waitSeconds(int priority) {
+        LocalDateTime now = LocalDateTime.now();
+        double queuedSeconds = 0;
+        for (KitchenOrder order : kitchenBoard.getActiveOrders()) {
+            if (order.getStatus() == OrderStatus.PREPARING) {
+                queuedSeconds += remaining(order, ticketSeconds(order), now);
+            } else if (order.getStatus() == OrderStatus.NEW && priorityOf(order) >= priority) {
+                queuedSeconds += ticketSeconds(order);
+            }
+        }
+        return queuedSeconds / parallelOrders;
+    }
+
+    private double ticketSeconds(KitchenOrder order) {
+        double seconds = 0;
+        for (KitchenOrderItem item : order.getItems()) {
+            seconds = Math.max(seconds, dishSeconds(item.getDishId(), item.getEstimatedPrepTime()));
+        }
+        return seconds;
+    }
+
+    private double dishSeconds(Long dishId, Integer estimatedPrepMinutes) {
+        Double average = dishId != null ? prepSeconds.get(dishId) : null;
+        if (average != null) {
+            return average;
+        }
+        return 60.0 * (estimatedPrepMinutes != null ? estimatedPrepMinutes : defaultPrepMinutes);
+    }
+
+    private static double remaining(KitchenOrder order, double ticketSeconds, LocalDateTime now) {
+        if (order.getStartedAt() == null) {
+            return ticketSeconds;
+        }
+        return Math.max(0, ticketSeconds - Duration.between(order.getStartedAt(), now).toSeconds());
+    }
+
+    private static int priorityOf(KitchenOrder order) {
+        return order.getPriority() != null ? order.getPriority() : 1;
+    }
+
+    private static int toMinutes(double seconds) {
+        return (int) Math.ceil(seconds / 60.0);
+    }
+}
@@ -0,0 +1,106 @@
+package com.restaurant.order.service;
+
+import com.restaurant.order.model.IdempotencyRecord;
+import com.restaurant.order.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Respostas já entregues por chave de idempotência.
+ *
+ * As consultas vão primeiro a um LRU em memória, limitado em tamanho e com
+ * expiração, e só depois à tabela idempotency_records, que faz a chave
+ * sobreviver a um reinício. Também marca as chaves em andamento, para que uma
+ * repetição que chega antes da primeira resposta não crie o pedido de novo.
+ */
+@Component
+public class IdempotencyStore {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private final Duration ttl;
+    private final Map<String, CachedResponse> memory;
+    private final Map<String, String> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyStore(@Value("${idempotency.ttl-hours:24}") long ttlHours,
+                            @Value("${idempotency.memory-capacity:10000}") int memoryCapacity) {
+        this.ttl = Duration.ofHours(ttlHours);
+        this.memory = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > memoryCapacity;
+            }
+        });
+    }
+
+    public CachedResponse find(String key) {
+        LocalDateTime now = LocalDateTime.now();
+        CachedResponse cached = memory.get(key);
+        if (cached != null) {
+            if (cached.expiresAt().isAfter(now)) {
+                return cached;
+            }
+            memory.remove(key);
+        }
+
+        IdempotencyRecord stored = idempotencyRecordRepository.findById(key).orElse(null);
+        if (stored == null || !stored.getExpiresAt().isAfter(now)) {
+            return null;
+        }
+        cached = new CachedResponse(stored.getRequestHash(), stored.getStatusCode(), stored.getContentType(),
+            stored.getResponseBody(), stored.getExpiresAt());
+        memory.put(key, cached);
+        return cached;
+    }
+
+    // Devolve o hash da requisição que já está em andamento com a mesma chave, ou null se esta pode seguir
+    public String begin(String key, String requestHash) {
+        return inFlight.putIfAbsent(key, requestHash);
+    }
+
+    public void complete(String key, String requestHash, int statusCode, String contentType, byte[] body) {
+        LocalDateTime now = LocalDateTime.now();
+        CachedResponse response = new CachedResponse(requestHash, statusCode, contentType, body, now.plus(ttl));
+        memory.put(key, response);
+        try {
+            idempotencyRecordRepository.save(new IdempotencyRecord(key, requestHash, statusCode, contentType, body, now, response.expiresAt()));
+        } catch (DataAccessException e) {
+            // A memória continua valendo; só a garantia após reinício fica comprometida para esta chave
+            log.warn("Não foi possível gravar a chave de idempotência {}: {}", key, e.getMessage());
+        }
+    }
+
+    public void release(String key) {
+        inFlight.remove(key);
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (memory) {
+            memory.values().removeIf(cached -> !cached.expiresAt().isAfter(now));
+        }
+        int purged = idempotencyRecordRepository.deleteExpired(now);
+        if (purged > 0) {
+            log.debug("Idempotência: {} chaves expiradas removidas", purged);
+        }
+    }
+
+    public record CachedResponse(String requestHash, int statusCode, String contentType, byte[] body, LocalDateTime expiresAt) {
+    }
+}
@@ -0,0 +1,241 @@
+package com.restaurant.order.service;
+
+import com.restaurant.order.event.KitchenOrderChangedEvent;
+import com.restaurant.order.model.KitchenOrder;
+import com.restaurant.order.model.OrderStatus;
+import com.restaurant.order.repository.KitchenOrderRepository;
+import jakarta.persistence.Persistence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Quadro da cozinha materializado em memória.
+ *
+ * Guarda apenas as comandas ativas (NEW, PREPARING, READY) em índices ordenados,
+ * na mesma ordem das consultas do KitchenOrderRepository, para que as listagens
+ * da tela da cozinha não precisem ir ao banco. É reconstruído a partir do banco
+ * quando a aplicação sobe e mantido pelos eventos publicados pelo KitchenService
+ * depois de cada commit.
+ */
+@Component
+public class KitchenBoard {
+
+    private static final Logger log = LoggerFactory.getLogger(KitchenBoard.class);
+
+    private static final Comparator<BoardKey> KEY_ORDER = Comparator
+        .comparingInt(BoardKey::rank).reversed()
+        .thenComparing(BoardKey::time, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparingLong(BoardKey::id);
+
+    @Autowired
+    private KitchenOrderRepository kitchenOrderRepository;
+
+    private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+    private final ConcurrentNavigableMap<BoardKey, KitchenOrder> active = new ConcurrentSkipListMap<>(KEY_ORDER);
+    private final Map<OrderStatus, ConcurrentNavigableMap<BoardKey, KitchenOrder>> byStatus = new EnumMap<>(OrderStatus.class);
+    // withItems pode ir ao banco com o lock tomado; ReentrantLock não fixa a thread virtual na portadora
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile boolean ready;
+
+    public KitchenBoard() {
+        byStatus.put(OrderStatus.NEW, new ConcurrentSkipListMap<>(KEY_ORDER));
+        byStatus.put(OrderStatus.PREPARING, new ConcurrentSkipListMap<>(KEY_ORDER));
+        byStatus.put(OrderStatus.READY, new ConcurrentSkipListMap<>(KEY_ORDER));
+    }
+
+    // Primeiro entre os ouvintes da subida: previsões e filas das praças partem do quadro carregado
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            List<KitchenOrder> orders = kitchenOrderRepository.findActiveKitchenOrders();
+            byId.clear();
+            active.clear();
+            byStatus.values().forEach(Map::clear);
+            orders.forEach(this::put);
+            ready = true;
+        } finally {
+            writeLock.unlock();
+        }
+        log.info("Quadro da cozinha carregado com {} comandas ativas", byId.size());
+    }
+
+    // Roda antes dos demais ouvintes para que o snapshot do feed SSE já veja a alteração
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onKitchenOrderChanged(KitchenOrderChangedEvent event) {
+        writeLock.lock();
+        try {
+            if (event.getType() == KitchenOrderChangedEvent.ChangeType.DELETED) {
+                remove(event.getKitchenOrderId());
+                return;
+            }
+
+            KitchenOrder order = withItems(event.getKitchenOrder());
+            if (order == null) {
+                remove(event.getKitchenOrderId());
+                return;
+            }
+            Entry current = byId.get(order.getId());
+            if (current != null && isStale(order, current.order())) {
+                // Commits concorrentes podem entregar os eventos fora de ordem
+                return;
+            }
+
+            remove(order.getId());
+            if (isOnBoard(order.getStatus())) {
+                put(order);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<KitchenOrder> getActiveOrders() {
+        return new ArrayList<>(active.values());
+    }
+
+    public List<KitchenOrder> getOrdersByStatus(OrderStatus status) {
+        ConcurrentNavigableMap<BoardKey, KitchenOrder> index = byStatus.get(status);
+        return index == null ? new ArrayList<>() : new ArrayList<>(index.values());
+    }
+
+    public Optional<KitchenOrder> getOrder(Long id) {
+        Entry entry = byId.get(id);
+        return entry == null ? Optional.empty() : Optional.of(entry.order());
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    // Percorre o índice (size() da skip list é O(n)); usado pelo gauge de fila, não por requisições
+    public int countByStatus(OrderStatus status) {
+        ConcurrentNavigableMap<BoardKey, KitchenOrder> index = byStatus.get(status);
+        return index == null ? 0 : index.size();
+    }
+
+    // Compara o quadro com o banco; divergência indica evento perdido ou escrita fora do KitchenService
+    public Map<String, Object> checkConsistency() {
+        List<KitchenOrder> expected = kitchenOrderRepository.findActiveKitchenOrders();
+        List<KitchenOrder> actual = getActiveOrders();
+
+        Map<Long, KitchenOrder> expectedById = new LinkedHashMap<>();
+        expected.forEach(order -> expectedById.put(order.getId(), order));
+
+        List<Long> missing = new ArrayList<>();
+        List<Long> unexpected = new ArrayList<>();
+        List<Long> mismatched = new ArrayList<>();
+
+        for (KitchenOrder order : expected) {
+            Entry entry = byId.get(order.getId());
+            if (entry == null) {
+                missing.add(order.getId());
+            } else if (entry.order().getStatus() != order.getStatus()
+                    || !Objects.equals(entry.order().getPriority(), order.getPriority())
+                    || !Objects.equals(entry.order().getVersion(), order.getVersion())) {
+                mismatched.add(order.getId());
+            }
+        }
+        for (KitchenOrder order : actual) {
+            if (!expectedById.containsKey(order.getId())) {
+                unexpected.add(order.getId());
+            }
+        }
+
+        List<Long> expectedOrder = expected.stream().map(KitchenOrder::getId).toList();
+        List<Long> actualOrder = actual.stream().map(KitchenOrder::getId).toList();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("consistent", missing.isEmpty() && unexpected.isEmpty() && mismatched.isEmpty() && expectedOrder.equals(actualOrder));
+        report.put("boardSize", actual.size());
+        report.put("databaseSize", expected.size());
+        report.put("missing", missing);
+        report.put("unexpected", unexpected);
+        report.put("mismatched", mismatched);
+        report.put("sameOrdering", expectedOrder.equals(actualOrder));
+        return report;
+    }
+
+    // O quadro guarda instâncias desanexadas; os itens (LAZY) precisam estar carregados
+    private KitchenOrder withItems(KitchenOrder order) {
+        if (Persistence.getPersistenceUtil().isLoaded(order, "items")) {
+            return order;
+        }
+        return kitchenOrderRepository.findWithItemsById(order.getId()).orElse(null);
+    }
+    
+    private void put(KitchenOrder order) {
+        BoardKey activeKey = new BoardKey(priorityOf(order), order.getCreatedAt(), order.getId());
+        BoardKey statusKey = statusKey(order);
+        byId.put(order.getId(), new Entry(order, activeKey, statusKey));
+        active.put(activeKey, order);
+        byStatus.get(order.getStatus()).put(statusKey, order);
+    }
+
+    private void remove(Long id) {
+        Entry entry = byId.remove(id);
+        if (entry != null) {
+            active.remove(entry.activeKey());
+            byStatus.get(entry.order().getStatus()).remove(entry.statusKey());
+        }
+    }
+
+    // Mesma ordenação das consultas findNewOrders, findPreparingOrders e findReadyOrders
+    private BoardKey statusKey(KitchenOrder order) {
+        switch (order.getStatus()) {
+            case PREPARING:
+                return new BoardKey(0, order.getStartedAt(), order.getId());
+            case READY:
+                return new BoardKey(0, order.getReadyAt(), order.getId());
+            default:
+                return new BoardKey(priorityOf(order), order.getCreatedAt(), order.getId());
+        }
+    }
+
+    // A versão (@Version) cresce a cada commit, ao contrário do updatedAt que pode empatar
+    private boolean isStale(KitchenOrder incoming, KitchenOrder current) {
+        return incoming.getVersion() != null && current.getVersion() != null
+            && incoming.getVersion() < current.getVersion();
+    }
+
+    private static boolean isOnBoard(OrderStatus status) {
+        return status == OrderStatus.NEW || status == OrderStatus.PREPARING || status == OrderStatus.READY;
+    }
+
+    private static int priorityOf(KitchenOrder order) {
+        return order.getPriority() != null ? order.getPriority() : 1;
+    }
+
+    private record BoardKey(int rank, LocalDateTime time, long id) {
+    }
+
+    private record Entry(KitchenOrder order, BoardKey activeKey, BoardKey statusKey) {
+    }
+}
@@ -0,0 +1,133 @@
+package com.restaurant.order.service;
+
+import com.restaurant.order.model.KitchenOrder;
+import com.restaurant.order.model.KitchenOrderItem;
+import com.restaurant.order.model.Order;
+import com.restaurant.order.model.OrderItem;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Mantém a comanda da cozinha alinhada com o pedido principal.
+ *
+ * Em vez de apagar e recriar a comanda, compara os itens do pedido com os
+ * itens da cozinha pelo dishId e aplica apenas as inserções, atualizações e
+ * remoções necessárias, preservando status de preparo e observações.
+ */
+@Component
+public class KitchenOrderSynchronizer {
+
+    public KitchenOrder toKitchenOrder(Order order) {
+        KitchenOrder kitchenOrder = new KitchenOrder();
+        kitchenOrder.setOrderId(order.getId());
+        kitchenOrder.setCustomerName(order.getCustomerName());
+        kitchenOrder.setCustomerPhone(order.getCustomerPhone());
+        kitchenOrder.setDeliveryAddress(order.getDeliveryAddress());
+        kitchenOrder.setTableNumber(order.getTableNumber());
+        kitchenOrder.setStatus(order.getStatus());
+        kitchenOrder.setCreatedAt(order.getCreatedAt());
+        kitchenOrder.setUpdatedAt(order.getUpdatedAt());
+
+        for (OrderItem orderItem : order.getItems()) {
+            kitchenOrder.addItem(toKitchenItem(orderItem));
+        }
+        return kitchenOrder;
+    }
+
+    public SyncResult merge(Order order, KitchenOrder kitchenOrder) {
+        int inserted = 0;
+        int updated = 0;
+        int removed = 0;
+
+        if (!Objects.equals(kitchenOrder.getCustomerName(), order.getCustomerName())
+                || !Objects.equals(kitchenOrder.getCustomerPhone(), order.getCustomerPhone())
+                || !Objects.equals(kitchenOrder.getDeliveryAddress(), order.getDeliveryAddress())
+                || !Objects.equals(kitchenOrder.getTableNumber(), order.getTableNumber())) {
+            kitchenOrder.setCustomerName(order.getCustomerName());
+            kitchenOrder.setCustomerPhone(order.getCustomerPhone());
+            kitchenOrder.setDeliveryAddress(order.getDeliveryAddress());
+            kitchenOrder.setTableNumber(order.getTableNumber());
+            updated++;
+        }
+        if (kitchenOrder.getStatus() != order.getStatus()) {
+            kitchenOrder.setStatus(order.getStatus());
+            updated++;
+        }
+
+        // Um mesmo prato pode aparecer em mais de uma linha, por isso cada dishId guarda uma fila
+        Map<Long, Deque<KitchenOrderItem>> existingByDish = new HashMap<>();
+        for (KitchenOrderItem kitchenItem : kitchenOrder.getItems()) {
+            existingByDish.computeIfAbsent(kitchenItem.getDishId(), dishId -> new ArrayDeque<>(1)).add(kitchenItem);
+        }
+
+        for (OrderItem orderItem : order.getItems()) {
+            Deque<KitchenOrderItem> candidates = existingByDish.get(orderItem.getDishId());
+            KitchenOrderItem kitchenItem = candidates != null ? candidates.poll() : null;
+
+            if (kitchenItem == null) {
+                kitchenOrder.addItem(toKitchenItem(orderItem));
+                inserted++;
+            } else if (applyChanges(orderItem, kitchenItem)) {
+                updated++;
+            }
+        }
+
+        // O que sobrou na cozinha não existe mais no pedido (orphanRemoval cuida do DELETE)
+        for (Deque<KitchenOrderItem> leftovers : existingByDish.values()) {
+            for (KitchenOrderItem kitchenItem : leftovers) {
+                kitchenOrder.removeItem(kitchenItem);
+                removed++;
+            }
+        }
+
+        // Os totais da comanda acompanham cada addItem/removeItem/setQuantity, sem recálculo no final
+        return new SyncResult(inserted, updated, removed);
+    }
+
+    private boolean applyChanges(OrderItem orderItem, KitchenOrderItem kitchenItem) {
+        boolean changed = false;
+
+        if (!Objects.equals(kitchenItem.getDishName(), orderItem.getDishName())) {
+            kitchenItem.setDishName(orderItem.getDishName());
+            changed = true;
+        }
+        if (!Objects.equals(kitchenItem.getUnitPrice(), orderItem.getUnitPrice())) {
+            kitchenItem.setUnitPrice(orderItem.getUnitPrice());
+            changed = true;
+        }
+        if (!Objects.equals(kitchenItem.getQuantity(), orderItem.getQuantity())) {
+            // Mais unidades de um prato já pronto voltam para a fila de preparo
+            if (orderItem.getQuantity() > kitchenItem.getQuantity()
+                    && (kitchenItem.getPreparationStatus() == KitchenOrderItem.PreparationStatus.READY
+                        || kitchenItem.getPreparationStatus() == KitchenOrderItem.PreparationStatus.SERVED)) {
+                kitchenItem.setPreparationStatus(KitchenOrderItem.PreparationStatus.PENDING);
+            }
+            kitchenItem.setQuantity(orderItem.getQuantity());
+            changed = true;
+        }
+        return changed;
+    }
+
+    private KitchenOrderItem toKitchenItem(OrderItem orderItem) {
+        KitchenOrderItem kitchenItem = new KitchenOrderItem();
+        kitchenItem.setDishId(orderItem.getDishId());
+        kitchenItem.setDishName(orderItem.getDishName());
+        kitchenItem.setQuantity(orderItem.getQuantity());
+        kitchenItem.setUnitPrice(orderItem.getUnitPrice());
+        kitchenItem.setTotalPrice(orderItem.getTotalPrice());
+        kitchenItem.setPreparationStatus(KitchenOrderItem.PreparationStatus.PENDING);
+        return kitchenItem;
+    }
+
+    public record SyncResult(int inserted, int updated, int removed) {
+
+        public boolean hasChanges() {
+            return inserted > 0 || updated > 0 || removed > 0;
+        }
+    }
+}
@@ -1,72 +1,194 @@
 package com.restaurant.order.service;
 
+import com.restaurant.order.dto.CursorPage;
+import com.restaurant.order.dto.KitchenOrderSummary;
+import com.restaurant.order.dto.PageCursor;
+import com.restaurant.order.dto.StationItem;
+import com.restaurant.order.event.KitchenOrderChangedEvent;
 import com.restaurant.order.model.KitchenOrder;
 import com.restaurant.order.model.KitchenOrderItem;
 import com.restaurant.order.model.OrderStatus;
+import com.restaurant.order.model.Station;
 import com.restaurant.order.repository.KitchenOrderRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Lazy;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 @Transactional
+@Timed("restaurant.service")
 public class KitchenService {
     
     @Autowired
     private KitchenOrderRepository kitchenOrderRepository;
     
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Autowired
+    private OutboxService outboxService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private KitchenBoard kitchenBoard;
+    
+    @Autowired
+    private OrderArchiver orderArchiver;
+    
+    @Autowired
+    private EtaEstimator etaEstimator;
+    
     @Autowired
-    @Lazy
-    private OrderService orderService;
+    private KitchenStationRouter kitchenStationRouter;
     
     public List<KitchenOrder> getAllKitchenOrders() {
         return kitchenOrderRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
+    public CursorPage<KitchenOrder> getKitchenOrdersPage(String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<KitchenOrder> fetched = after == null
+            ? kitchenOrderRepository.findFirstPage(limit)
+            : kitchenOrderRepository.findPageAfter(after.createdAt(), after.id(), limit);
+        return CursorPage.of(fetched, size, item -> new PageCursor(item.getCreatedAt(), item.getId()));
+    }
+    
+    // Percorre a tabela inteira em blocos (ChunkedExport): uma consulta de itens por bloco, não por comanda
+    @Transactional(readOnly = true)
+    public void forEachKitchenOrder(Consumer<KitchenOrder> action) {
+        PageRequest chunk = PageRequest.of(0, ChunkedExport.CHUNK_SIZE);
+        ChunkedExport.forEach(entityManager,
+            after -> after == null
+                ? kitchenOrderRepository.findFirstKeys(chunk)
+                : kitchenOrderRepository.findKeysAfter(after.createdAt(), after.id(), chunk),
+            kitchenOrderRepository::findByIdIn, KitchenOrder::getId, action);
+    }
+    
+    @Transactional(readOnly = true)
+    public CursorPage<KitchenOrder> getOrdersByDateRangePage(LocalDateTime startDate, LocalDateTime endDate, String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<KitchenOrder> fetched = after == null
+            ? kitchenOrderRepository.findDateRangeFirstPage(startDate, endDate, limit)
+            : kitchenOrderRepository.findDateRangePageAfter(startDate, endDate, after.createdAt(), after.id(), limit);
+        return CursorPage.of(fetched, size, item -> new PageCursor(item.getCreatedAt(), item.getId()));
+    }
+    
+    @Transactional(readOnly = true)
+    public void forEachKitchenOrderInDateRange(LocalDateTime startDate, LocalDateTime endDate, Consumer<KitchenOrder> action) {
+        PageRequest chunk = PageRequest.of(0, ChunkedExport.CHUNK_SIZE);
+        ChunkedExport.forEach(entityManager,
+            after -> after == null
+                ? kitchenOrderRepository.findDateRangeFirstKeys(startDate, endDate, chunk)
+                : kitchenOrderRepository.findDateRangeKeysAfter(startDate, endDate, after.createdAt(), after.id(), chunk),
+            kitchenOrderRepository::findByIdIn, KitchenOrder::getId, action);
+    }
+    
+    // As listagens da tela da cozinha vêm do quadro em memória; o banco só é usado até ele ser carregado
     public List<KitchenOrder> getActiveKitchenOrders() {
-        return kitchenOrderRepository.findActiveKitchenOrders();
+        return kitchenBoard.isReady() ? kitchenBoard.getActiveOrders() : kitchenOrderRepository.findActiveKitchenOrders();
     }
     
     public List<KitchenOrder> getNewOrders() {
-        return kitchenOrderRepository.findNewOrders();
+        return kitchenBoard.isReady() ? kitchenBoard.getOrdersByStatus(OrderStatus.NEW) : kitchenOrderRepository.findNewOrders();
     }
     
     public List<KitchenOrder> getPreparingOrders() {
-        return kitchenOrderRepository.findPreparingOrders();
+        return kitchenBoard.isReady() ? kitchenBoard.getOrdersByStatus(OrderStatus.PREPARING) : kitchenOrderRepository.findPreparingOrders();
     }
     
     public List<KitchenOrder> getReadyOrders() {
-        return kitchenOrderRepository.findReadyOrders();
+        return kitchenBoard.isReady() ? kitchenBoard.getOrdersByStatus(OrderStatus.READY) : kitchenOrderRepository.findReadyOrders();
+    }
+    
+    // Status do quadro vêm da memória; os demais, de uma consulta que não carrega itens
+    @Transactional(readOnly = true)
+    public List<KitchenOrderSummary> getKitchenOrderSummaries(OrderStatus status) {
+        if (kitchenBoard.isReady() && (status == null || status == OrderStatus.NEW
+                || status == OrderStatus.PREPARING || status == OrderStatus.READY)) {
+            List<KitchenOrder> orders = status == null ? kitchenBoard.getActiveOrders() : kitchenBoard.getOrdersByStatus(status);
+            return orders.stream().map(KitchenOrderSummary::of).toList();
+        }
+        if (status == null) {
+            return kitchenOrderRepository.findActiveKitchenOrders().stream().map(KitchenOrderSummary::of).toList();
+        }
+        return kitchenOrderRepository.findSummariesByStatus(status);
     }
     
     public List<KitchenOrder> getOrdersByTable(Integer tableNumber) {
         return kitchenOrderRepository.findActiveOrdersByTable(tableNumber);
     }
     
+    // Comandas encerradas há tempo já saíram da tabela quente: a busca por id cai no histórico
     public Optional<KitchenOrder> getKitchenOrderById(Long id) {
-        return kitchenOrderRepository.findById(id);
+        return kitchenOrderRepository.findWithItemsById(id).or(() -> orderArchiver.findArchivedKitchenOrder(id));
     }
     
     public Optional<KitchenOrder> getKitchenOrderByOrderId(Long orderId) {
         return kitchenOrderRepository.findByOrderId(orderId);
     }
     
+    // Minutos até a comanda ficar pronta: previsão viva para NEW/PREPARING, 0 para READY
+    @Transactional(readOnly = true)
+    public Optional<Integer> getRemainingMinutes(Long id) {
+        Optional<KitchenOrder> order = kitchenBoard.isReady() ? kitchenBoard.getOrder(id) : kitchenOrderRepository.findById(id);
+        if (order.isEmpty()) {
+            return Optional.empty();
+        }
+        if (order.get().getStatus() == OrderStatus.READY) {
+            return Optional.of(0);
+        }
+        return etaEstimator.getRemainingMinutes(id);
+    }
+    
+    // Fila da praça em memória; antes do roteador subir, monta a partir das comandas ativas do banco
+    @Transactional(readOnly = true)
+    public List<StationItem> getStationQueue(Station station) {
+        if (kitchenStationRouter.isReady()) {
+            return kitchenStationRouter.getQueue(station);
+        }
+        List<StationItem> queue = new ArrayList<>();
+        for (KitchenOrder order : kitchenOrderRepository.findActiveKitchenOrders()) {
+            queue.addAll(kitchenStationRouter.fanOut(order, station));
+        }
+        return queue;
+    }
+    
     public KitchenOrder createKitchenOrder(KitchenOrder kitchenOrder) {
-        kitchenOrder.calculateTotal();
-        return kitchenOrderRepository.save(kitchenOrder);
+        kitchenStationRouter.assignStations(kitchenOrder);
+        // Previsão automática, a menos que a comanda já venha com tempo definido
+        if (kitchenOrder.getEstimatedTime() == null) {
+            kitchenOrder.setEstimatedTime(etaEstimator.estimateMinutes(kitchenOrder));
+        }
+        KitchenOrder savedOrder = kitchenOrderRepository.save(kitchenOrder);
+        eventPublisher.publishEvent(KitchenOrderChangedEvent.created(savedOrder));
+        return savedOrder;
     }
     
     public KitchenOrder updateKitchenOrder(KitchenOrder kitchenOrder) {
-        return kitchenOrderRepository.save(kitchenOrder);
+        // Itens inseridos pela sincronização com o pedido chegam sem praça
+        kitchenStationRouter.assignStations(kitchenOrder);
+        return saveAndPublish(kitchenOrder, null);
     }
     
     public KitchenOrder updateOrderStatus(Long id, OrderStatus status) {
-        Optional<KitchenOrder> optionalOrder = kitchenOrderRepository.findById(id);
+        Optional<KitchenOrder> optionalOrder = kitchenOrderRepository.findWithItemsById(id);
         if (optionalOrder.isPresent()) {
             KitchenOrder order = optionalOrder.get();
             
@@ -76,29 +198,14 @@ public class KitchenService {
                     order.getStatus() + " -> " + status);
             }
             
+            OrderStatus previousStatus = order.getStatus();
             order.setStatus(status);
-            KitchenOrder savedOrder = kitchenOrderRepository.save(order);
+            KitchenOrder savedOrder = saveAndPublish(order, previousStatus);
             
-            // Se o pedido foi marcado como DELIVERED, sincronizar com o pedido principal
-            if (status == OrderStatus.DELIVERED) {
-                try {
-                    orderService.updateOrderStatus(order.getOrderId(), OrderStatus.DELIVERED);
-                    System.out.println("Pedido principal sincronizado como DELIVERED: " + order.getOrderId());
-                } catch (Exception e) {
-                    System.err.println("Erro ao sincronizar pedido principal: " + e.getMessage());
-                    e.printStackTrace();
-                }
-            }
-            
-            // Se o pedido foi marcado como READY, sincronizar com o pedido principal
-            if (status == OrderStatus.READY) {
-                try {
-                    orderService.updateOrderStatus(order.getOrderId(), OrderStatus.READY);
-                    System.out.println("Pedido principal sincronizado como READY: " + order.getOrderId());
-                } catch (Exception e) {
-                    System.err.println("Erro ao sincronizar pedido principal: " + e.getMessage());
-                    e.printStackTrace();
-                }
+            // READY, DELIVERED e CANCELLED voltam para o pedido principal via outbox; o cancelamento
+            // só é aplicado lá onde canTransitionTo permite
+            if (status == OrderStatus.READY || status == OrderStatus.DELIVERED || status == OrderStatus.CANCELLED) {
+                outboxService.enqueueOrderStatusChange(order.getOrderId(), status);
             }
             
             return savedOrder;
@@ -108,7 +215,7 @@ public class KitchenService {
     
     public KitchenOrder updateItemPreparationStatus(Long orderId, Long itemId, 
                                                   KitchenOrderItem.PreparationStatus status) {
-        Optional<KitchenOrder> optionalOrder = kitchenOrderRepository.findById(orderId);
+        Optional<KitchenOrder> optionalOrder = findForUpdate(orderId);
         if (optionalOrder.isPresent()) {
             KitchenOrder order = optionalOrder.get();
             order.getItems().stream()
@@ -117,13 +224,13 @@ public class KitchenService {
                 .ifPresent(item -> {
                     item.setPreparationStatus(status);
                 });
-            return kitchenOrderRepository.save(order);
+            return saveAndPublish(order, order.getStatus());
         }
         throw new RuntimeException("Comanda da cozinha não encontrada com id: " + orderId);
     }
     
     public KitchenOrder addPreparationNotes(Long orderId, Long itemId, String notes) {
-        Optional<KitchenOrder> optionalOrder = kitchenOrderRepository.findById(orderId);
+        Optional<KitchenOrder> optionalOrder = findForUpdate(orderId);
         if (optionalOrder.isPresent()) {
             KitchenOrder order = optionalOrder.get();
             order.getItems().stream()
@@ -132,37 +239,37 @@ public class KitchenService {
                 .ifPresent(item -> {
                     item.setPreparationNotes(notes);
                 });
-            return kitchenOrderRepository.save(order);
+            return saveAndPublish(order, order.getStatus());
         }
         throw new RuntimeException("Comanda da cozinha não encontrada com id: " + orderId);
     }
     
     public KitchenOrder updateOrderPriority(Long id, Integer priority) {
-        Optional<KitchenOrder> optionalOrder = kitchenOrderRepository.findById(id);
+        Optional<KitchenOrder> optionalOrder = kitchenOrderRepository.findWithItemsById(id);
         if (optionalOrder.isPresent()) {
             KitchenOrder order = optionalOrder.get();
             order.setPriority(priority);
-            return kitchenOrderRepository.save(order);
+            return saveAndPublish(order, order.getStatus());
         }
         throw new RuntimeException("Comanda da cozinha não encontrada com id: " + id);
     }
     
     public KitchenOrder addOrderNotes(Long id, String notes) {
-        Optional<KitchenOrder> optionalOrder = kitchenOrderRepository.findById(id);
+        Optional<KitchenOrder> optionalOrder = kitchenOrderRepository.findWithItemsById(id);
         if (optionalOrder.isPresent()) {
             KitchenOrder order = optionalOrder.get();
             order.setNotes(notes);
-            return kitchenOrderRepository.save(order);
+            return saveAndPublish(order, order.getStatus());
         }
         throw new RuntimeException("Comanda da cozinha não encontrada com id: " + id);
     }
     
     public KitchenOrder updateEstimatedTime(Long id, Integer estimatedTime) {
-        Optional<KitchenOrder> optionalOrder = kitchenOrderRepository.findById(id);
+        Optional<KitchenOrder> optionalOrder = kitchenOrderRepository.findWithItemsById(id);
         if (optionalOrder.isPresent()) {
             KitchenOrder order = optionalOrder.get();
             order.setEstimatedTime(estimatedTime);
-            return kitchenOrderRepository.save(order);
+            return saveAndPublish(order, order.getStatus());
         }
         throw new RuntimeException("Comanda da cozinha não encontrada com id: " + id);
     }
@@ -180,7 +287,7 @@ public class KitchenService {
     }
     
     public KitchenOrder markAllItemsAsReady(Long orderId) {
-        Optional<KitchenOrder> optionalOrder = kitchenOrderRepository.findById(orderId);
+        Optional<KitchenOrder> optionalOrder = findForUpdate(orderId);
         if (optionalOrder.isPresent()) {
             KitchenOrder order = optionalOrder.get();
             
@@ -190,19 +297,13 @@ public class KitchenService {
             });
             
             // Atualizar status do pedido para READY
+            OrderStatus previousStatus = order.getStatus();
             order.setStatus(OrderStatus.READY);
-            order.setReadyAt(LocalDateTime.now());
             
-            KitchenOrder savedOrder = kitchenOrderRepository.save(order);
+            KitchenOrder savedOrder = saveAndPublish(order, previousStatus);
             
-            // Sincronizar com o pedido principal
-            try {
-                orderService.updateOrderStatus(order.getOrderId(), OrderStatus.READY);
-                System.out.println("Pedido principal sincronizado como READY: " + order.getOrderId());
-            } catch (Exception e) {
-                System.err.println("Erro ao sincronizar pedido principal: " + e.getMessage());
-                e.printStackTrace();
-            }
+            // Sincronizar com o pedido principal via outbox
+            outboxService.enqueueOrderStatusChange(order.getOrderId(), OrderStatus.READY);
             
             return savedOrder;
         }
@@ -223,5 +324,21 @@ public class KitchenService {
     
     public void deleteKitchenOrder(Long id) {
         kitchenOrderRepository.deleteById(id);
+        eventPublisher.publishEvent(KitchenOrderChangedEvent.deleted(id));
+    }
+    
+    // Toda alteração passa por aqui para que os ouvintes (tela da cozinha) sejam avisados após o commit
+    private KitchenOrder saveAndPublish(KitchenOrder order, OrderStatus previousStatus) {
+        KitchenOrder savedOrder = kitchenOrderRepository.save(order);
+        eventPublisher.publishEvent(KitchenOrderChangedEvent.updated(savedOrder, previousStatus));
+        return savedOrder;
+    }
+    
+    // Para alterações que mexem só nos itens: a versão do agregado sobe mesmo sem mudar a linha do pai.
+    // O lock vai só na raiz; com o entity graph na mesma consulta ele alcançaria os itens, que não têm @Version
+    private Optional<KitchenOrder> findForUpdate(Long id) {
+        Optional<KitchenOrder> found = kitchenOrderRepository.findWithItemsById(id);
+        found.ifPresent(entity -> entityManager.lock(entity, LockModeType.OPTIMISTIC_FORCE_INCREMENT));
+        return found;
     }
 }
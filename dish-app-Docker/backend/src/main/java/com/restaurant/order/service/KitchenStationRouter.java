@@ -0,0 +1,232 @@
+package com.restaurant.order.service;
+
+import com.restaurant.order.dto.StationItem;
+import com.restaurant.order.event.KitchenOrderChangedEvent;
+import com.restaurant.order.model.Dish;
+import com.restaurant.order.model.KitchenOrder;
+import com.restaurant.order.model.KitchenOrderItem;
+import com.restaurant.order.model.OrderStatus;
+import com.restaurant.order.model.Station;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Distribui os itens das comandas ativas nas filas de cada praça (chapa, fritadeira, saladas, bar).
+ *
+ * Cada praça tem seu índice ordenado como o quadro (prioridade, chegada), com apenas os
+ * itens ainda por fazer (PENDING, IN_PROGRESS) de comandas NEW ou PREPARING. É mantido
+ * a partir do KitchenBoard: a cada alteração confirmada, só as linhas daquela comanda
+ * são trocadas, e a tela de uma praça lê a própria fila sem filtrar o quadro inteiro.
+ *
+ * A praça de um item é a do prato no momento em que ele entra na cozinha (copiada para
+ * o item); pratos sem praça vão para kitchen.stations.default.
+ */
+@Component
+public class KitchenStationRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(KitchenStationRouter.class);
+
+    private static final Comparator<QueueKey> KEY_ORDER = Comparator
+        .comparingInt(QueueKey::rank).reversed()
+        .thenComparing(QueueKey::time, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparingLong(QueueKey::kitchenOrderId)
+        .thenComparingLong(QueueKey::itemId);
+
+    @Autowired
+    private KitchenBoard kitchenBoard;
+
+    @Autowired
+    private DishCatalog dishCatalog;
+
+    @Value("${kitchen.stations.default:GRILL}")
+    private Station defaultStation;
+
+    private final Map<Station, ConcurrentNavigableMap<QueueKey, StationItem>> queues = new EnumMap<>(Station.class);
+    // kitchenOrderId -> linhas que a comanda ocupa nas filas, para trocá-las sem varrer as praças
+    private final Map<Long, List<Routed>> byOrder = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile DishStations dishStations;
+    private volatile boolean ready;
+
+    public KitchenStationRouter() {
+        for (Station station : Station.values()) {
+            queues.put(station, new ConcurrentSkipListMap<>(KEY_ORDER));
+        }
+    }
+
+    // O KitchenBoard é carregado antes (HIGHEST_PRECEDENCE no rebuild dele)
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        writeLock.lock();
+        try {
+            byOrder.clear();
+            queues.values().forEach(Map::clear);
+            kitchenBoard.getActiveOrders().forEach(this::route);
+            ready = true;
+        } finally {
+            writeLock.unlock();
+        }
+        log.info("Filas das praças carregadas: {}", getQueueSizes());
+    }
+
+    // Logo depois do KitchenBoard e antes do feed SSE, que lê as filas para as telas das praças
+    @Order(Ordered.HIGHEST_PRECEDENCE + 1)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onKitchenOrderChanged(KitchenOrderChangedEvent event) {
+        writeLock.lock();
+        try {
+            unroute(event.getKitchenOrderId());
+            // A cópia do quadro já é a versão mais recente e tem os itens carregados
+            kitchenBoard.getOrder(event.getKitchenOrderId()).ifPresent(this::route);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public List<StationItem> getQueue(Station station) {
+        return new ArrayList<>(queues.get(station).values());
+    }
+
+    // Itens de uma comanda que estão na fila da praça, na ordem da fila
+    public List<StationItem> getItems(Long kitchenOrderId, Station station) {
+        List<Routed> routed = byOrder.get(kitchenOrderId);
+        if (routed == null) {
+            return List.of();
+        }
+        List<StationItem> items = new ArrayList<>();
+        for (Routed entry : routed) {
+            if (entry.station() == station) {
+                items.add(entry.item());
+            }
+        }
+        return items;
+    }
+
+    // size() da skip list é O(n); usado pelo gauge e pelo resumo das praças, não pelas telas
+    public int countByStation(Station station) {
+        return queues.get(station).size();
+    }
+
+    public Map<Station, Integer> getQueueSizes() {
+        Map<Station, Integer> sizes = new EnumMap<>(Station.class);
+        for (Station station : Station.values()) {
+            sizes.put(station, countByStation(station));
+        }
+        return sizes;
+    }
+
+    // Linhas da comanda para uma praça, sem tocar nas filas; serve também à leitura direta do banco
+    public List<StationItem> fanOut(KitchenOrder order, Station station) {
+        List<StationItem> items = new ArrayList<>();
+        if (!isRoutable(order.getStatus())) {
+            return items;
+        }
+        for (KitchenOrderItem item : order.getItems()) {
+            if (isPending(item) && stationOf(item) == station) {
+                items.add(StationItem.of(order, item, station));
+            }
+        }
+        return items;
+    }
+
+    // Preenche a praça dos itens que ainda não têm (comanda nova ou item recém-sincronizado)
+    public void assignStations(KitchenOrder order) {
+        for (KitchenOrderItem item : order.getItems()) {
+            if (item.getStation() == null) {
+                item.setStation(stationFor(item.getDishId()));
+            }
+        }
+    }
+
+    public Station stationFor(Long dishId) {
+        DishCatalog.Snapshot snapshot = dishCatalog.getSnapshot();
+        DishStations index = dishStations;
+        if (index == null || index.snapshot() != snapshot) {
+            // O snapshot do cardápio só muda depois de uma escrita em pratos
+            Map<Long, Station> byDish = new HashMap<>();
+            for (Dish dish : snapshot.dishes()) {
+                if (dish.getStation() != null) {
+                    byDish.put(dish.getId(), dish.getStation());
+                }
+            }
+            index = new DishStations(snapshot, byDish);
+            dishStations = index;
+        }
+        return index.byDish().getOrDefault(dishId, defaultStation);
+    }
+
+    private void route(KitchenOrder order) {
+        if (!isRoutable(order.getStatus())) {
+            return;
+        }
+        List<Routed> routed = new ArrayList<>();
+        int rank = order.getPriority() != null ? order.getPriority() : 1;
+        for (KitchenOrderItem item : order.getItems()) {
+            if (!isPending(item)) {
+                continue;
+            }
+            Station station = stationOf(item);
+            QueueKey key = new QueueKey(rank, order.getCreatedAt(), order.getId(), item.getId());
+            StationItem line = StationItem.of(order, item, station);
+            queues.get(station).put(key, line);
+            routed.add(new Routed(station, key, line));
+        }
+        if (!routed.isEmpty()) {
+            byOrder.put(order.getId(), routed);
+        }
+    }
+
+    private void unroute(Long kitchenOrderId) {
+        List<Routed> routed = byOrder.remove(kitchenOrderId);
+        if (routed != null) {
+            routed.forEach(entry -> queues.get(entry.station()).remove(entry.key()));
+        }
+    }
+
+    private Station stationOf(KitchenOrderItem item) {
+        return item.getStation() != null ? item.getStation() : stationFor(item.getDishId());
+    }
+
+    // READY em diante a comanda saiu das praças, mesmo que algum item não tenha sido marcado
+    private static boolean isRoutable(OrderStatus status) {
+        return status == OrderStatus.NEW || status == OrderStatus.PREPARING;
+    }
+
+    private static boolean isPending(KitchenOrderItem item) {
+        return item.getPreparationStatus() == KitchenOrderItem.PreparationStatus.PENDING
+            || item.getPreparationStatus() == KitchenOrderItem.PreparationStatus.IN_PROGRESS;
+    }
+
+    private record QueueKey(int rank, LocalDateTime time, long kitchenOrderId, long itemId) {
+    }
+
+    private record Routed(Station station, QueueKey key, StationItem item) {
+    }
+
+    private record DishStations(DishCatalog.Snapshot snapshot, Map<Long, Station> byDish) {
+    }
+}
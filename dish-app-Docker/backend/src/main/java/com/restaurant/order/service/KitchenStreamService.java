@@ -0,0 +1,305 @@
+package com.restaurant.order.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restaurant.order.dto.StationItem;
+import com.restaurant.order.event.KitchenOrderChangedEvent;
+import com.restaurant.order.model.KitchenOrder;
+import com.restaurant.order.model.OrderStatus;
+import com.restaurant.order.model.Station;
+import com.restaurant.order.repository.KitchenOrderRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.Persistence;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Envia as alterações das comandas para as telas da cozinha via Server-Sent Events.
+ *
+ * Cada tela conectada recebe primeiro um snapshot das comandas ativas e depois
+ * apenas os eventos "upsert" e "remove". O quadro SSE de cada evento é montado uma única
+ * vez e colocado na fila limitada de cada assinante; uma tela lenta que deixa a
+ * fila encher é desconectada (o EventSource reconecta e recebe novo snapshot) em
+ * vez de acumular memória ou atrasar as demais.
+ *
+ * A tela de uma praça assina só a própria fila: o snapshot traz os itens da praça e
+ * cada "upsert" traz os itens daquela comanda que continuam na praça.
+ */
+@Service
+@Timed("restaurant.service")
+public class KitchenStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(KitchenStreamService.class);
+
+    private static final Set<OrderStatus> ACTIVE_STATUSES = EnumSet.of(OrderStatus.NEW, OrderStatus.PREPARING, OrderStatus.READY);
+
+    @Autowired
+    private KitchenService kitchenService;
+
+    @Autowired
+    private KitchenStationRouter kitchenStationRouter;
+
+    @Autowired
+    private KitchenBoard kitchenBoard;
+
+    @Autowired
+    private KitchenOrderRepository kitchenOrderRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Environment environment;
+
+    @Value("${kitchen.stream.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${kitchen.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${kitchen.stream.sender-threads:2}")
+    private int senderThreads;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private Executor sender;
+
+    @PostConstruct
+    void start() {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // Cada tela drena na sua própria thread virtual: um socket lento bloqueia só a própria tela
+            sender = new VirtualThreadTaskExecutor("kitchen-sse-");
+            return;
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("kitchen-sse-");
+        threadFactory.setDaemon(true);
+        sender = Executors.newFixedThreadPool(senderThreads, threadFactory);
+    }
+
+    @PreDestroy
+    void stop() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        if (sender instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    public SseEmitter subscribe(Collection<OrderStatus> statuses) {
+        Set<OrderStatus> filter = statuses == null || statuses.isEmpty() ? ACTIVE_STATUSES : EnumSet.copyOf(statuses);
+        Subscriber subscriber = register(new Subscriber(new SseEmitter(timeoutMs), filter, null, bufferSize));
+
+        List<KitchenOrder> snapshot = kitchenService.getActiveKitchenOrders().stream()
+            .filter(order -> filter.contains(order.getStatus()))
+            .toList();
+        synchronized (subscriber) {
+            snapshot.forEach(order -> subscriber.visibleIds.add(order.getId()));
+            subscriber.queue.offerFirst(frame("snapshot", snapshot));
+        }
+        schedule(subscriber);
+        return subscriber.emitter;
+    }
+
+    public SseEmitter subscribe(Station station) {
+        Subscriber subscriber = register(new Subscriber(new SseEmitter(timeoutMs), ACTIVE_STATUSES, station, bufferSize));
+
+        List<StationItem> snapshot = kitchenService.getStationQueue(station);
+        synchronized (subscriber) {
+            snapshot.forEach(item -> subscriber.visibleIds.add(item.kitchenOrderId()));
+            subscriber.queue.offerFirst(frame("snapshot", snapshot));
+        }
+        schedule(subscriber);
+        return subscriber.emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private Subscriber register(Subscriber subscriber) {
+        subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+        subscriber.emitter.onTimeout(() -> disconnect(subscriber));
+        subscriber.emitter.onError(error -> subscribers.remove(subscriber));
+
+        // Registrar antes de ler o snapshot: o que mudar no meio do caminho chega como evento
+        // depois do snapshot, e como os eventos são upserts por id o estado final fica correto
+        subscribers.add(subscriber);
+        return subscriber;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onKitchenOrderChanged(KitchenOrderChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+
+        KitchenOrder order = withItems(event);
+        Set<ResponseBodyEmitter.DataWithMediaType> upsert = null;
+        Set<ResponseBodyEmitter.DataWithMediaType> remove = null;
+        // Por praça: os itens da comanda naquela fila, lidos do roteador (que já processou o evento)
+        Map<Station, Set<ResponseBodyEmitter.DataWithMediaType>> stationUpserts = null;
+
+        for (Subscriber subscriber : subscribers) {
+            Set<ResponseBodyEmitter.DataWithMediaType> message;
+            synchronized (subscriber) {
+                if (subscriber.station != null) {
+                    if (stationUpserts == null) {
+                        stationUpserts = new EnumMap<>(Station.class);
+                    }
+                    message = stationUpserts.computeIfAbsent(subscriber.station, station -> stationFrame(event.getKitchenOrderId(), station));
+                    if (message != null) {
+                        subscriber.visibleIds.add(event.getKitchenOrderId());
+                    } else if (subscriber.visibleIds.remove(event.getKitchenOrderId())) {
+                        if (remove == null) {
+                            remove = frame("remove", Map.of("id", event.getKitchenOrderId()));
+                        }
+                        message = remove;
+                    } else {
+                        continue;
+                    }
+                } else if (order != null && subscriber.statuses.contains(order.getStatus())) {
+                    subscriber.visibleIds.add(order.getId());
+                    if (upsert == null) {
+                        upsert = frame("upsert", order);
+                    }
+                    message = upsert;
+                } else if (subscriber.visibleIds.remove(event.getKitchenOrderId())) {
+                    // Saiu do filtro desta tela (mudou de status ou foi excluída)
+                    if (remove == null) {
+                        remove = frame("remove", Map.of("id", event.getKitchenOrderId()));
+                    }
+                    message = remove;
+                } else {
+                    continue;
+                }
+
+                if (!subscriber.queue.offerLast(message)) {
+                    log.warn("SSE: assinante lento desconectado ({} eventos pendentes)", subscriber.queue.size());
+                    disconnect(subscriber);
+                    continue;
+                }
+            }
+            schedule(subscriber);
+        }
+    }
+
+    // Mantém a conexão viva através de proxies e detecta telas que sumiram sem fechar o socket
+    @Scheduled(fixedDelayString = "${kitchen.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        Set<ResponseBodyEmitter.DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.queue.offerLast(ping)) {
+                schedule(subscriber);
+            } else {
+                disconnect(subscriber);
+            }
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Set<ResponseBodyEmitter.DataWithMediaType> message;
+            while ((message = subscriber.queue.pollFirst()) != null) {
+                subscriber.emitter.send(message);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Cliente desconectou; o próprio emitter dispara onError/onCompletion
+            subscribers.remove(subscriber);
+            subscriber.queue.clear();
+        } finally {
+            subscriber.draining.set(false);
+            if (!subscriber.queue.isEmpty() && subscribers.contains(subscriber)) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    private void disconnect(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+        subscriber.queue.clear();
+        subscriber.emitter.complete();
+    }
+
+    // A cópia do quadro (que já processou o evento) tem os itens; a do evento pode não ter.
+    // Fora do quadro (entregue ou cancelada) recarrega com os itens se preciso
+    private KitchenOrder withItems(KitchenOrderChangedEvent event) {
+        KitchenOrder order = event.getKitchenOrder();
+        if (order == null) {
+            return null;
+        }
+        KitchenOrder onBoard = kitchenBoard.getOrder(event.getKitchenOrderId()).orElse(null);
+        if (onBoard != null) {
+            return onBoard;
+        }
+        if (Persistence.getPersistenceUtil().isLoaded(order, "items")) {
+            return order;
+        }
+        return kitchenOrderRepository.findWithItemsById(order.getId()).orElse(null);
+    }
+
+    // null quando a comanda não tem itens na fila da praça
+    private Set<ResponseBodyEmitter.DataWithMediaType> stationFrame(Long kitchenOrderId, Station station) {
+        List<StationItem> items = kitchenStationRouter.getItems(kitchenOrderId, station);
+        return items.isEmpty() ? null : frame("upsert", Map.of("kitchenOrderId", kitchenOrderId, "items", items));
+    }
+
+    // O builder do Spring não pode ser reenviado; o quadro já montado é imutável e compartilhado entre as telas
+    private Set<ResponseBodyEmitter.DataWithMediaType> frame(String name, Object value) {
+        try {
+            return SseEmitter.event().name(name).data(objectMapper.writeValueAsString(value), MediaType.APPLICATION_JSON).build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar evento da cozinha", e);
+        }
+    }
+
+    private static class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<OrderStatus> statuses;
+        private final Station station;
+        private final BlockingDeque<Set<ResponseBodyEmitter.DataWithMediaType>> queue;
+        private final Set<Long> visibleIds = new HashSet<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, Set<OrderStatus> statuses, Station station, int bufferSize) {
+            this.emitter = emitter;
+            this.statuses = statuses;
+            this.station = station;
+            this.queue = new LinkedBlockingDeque<>(bufferSize);
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.restaurant.order.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.restaurant.order.model.KitchenOrder;
+import com.restaurant.order.model.KitchenOrderHistory;
+import com.restaurant.order.model.Order;
+import com.restaurant.order.model.OrderBalance;
+import com.restaurant.order.model.OrderHistory;
+import com.restaurant.order.repository.KitchenOrderHistoryRepository;
+import com.restaurant.order.repository.KitchenOrderRepository;
+import com.restaurant.order.repository.OrderBalanceRepository;
+import com.restaurant.order.repository.OrderHistoryRepository;
+import com.restaurant.order.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Move pedidos e comandas encerrados para as tabelas de histórico.
+ *
+ * As tabelas quentes (orders, kitchen_orders e seus itens) ficam só com o que
+ * ainda está em andamento ou encerrou há pouco, então as consultas de pedidos
+ * ativos não crescem com o histórico. Cada lote roda na própria transação: grava
+ * o JSON completo no histórico e apaga o original (os itens vão junto pelo
+ * cascade, o saldo de order_balances vai para as colunas do histórico). As
+ * buscas por id caem no histórico quando o registro já saiu da tabela quente.
+ */
+@Component
+public class OrderArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiver.class);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private KitchenOrderRepository kitchenOrderRepository;
+
+    @Autowired
+    private OrderHistoryRepository orderHistoryRepository;
+
+    @Autowired
+    private OrderBalanceRepository orderBalanceRepository;
+
+    @Autowired
+    private KitchenOrderHistoryRepository kitchenOrderHistoryRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${archive.min-age-hours:24}")
+    private long minAgeHours;
+
+    @Value("${archive.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${archive.max-chunks-per-run:50}")
+    private int maxChunksPerRun;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Scheduled(fixedDelayString = "${archive.interval-ms:300000}", initialDelayString = "${archive.initial-delay-ms:60000}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(minAgeHours);
+        int orders = runChunks(() -> moveOrders(cutoff));
+        int kitchenOrders = runChunks(() -> moveKitchenOrders(cutoff));
+        if (orders > 0 || kitchenOrders > 0) {
+            log.info("Arquivamento: {} pedidos e {} comandas movidos para o histórico", orders, kitchenOrders);
+        }
+    }
+
+    public Optional<Order> findArchivedOrder(Long id) {
+        return orderHistoryRepository.findById(id)
+            .map(history -> fromJson(history.getPayload(), Order.class));
+    }
+
+    public Optional<KitchenOrder> findArchivedKitchenOrder(Long id) {
+        return kitchenOrderHistoryRepository.findById(id)
+            .map(history -> fromJson(history.getPayload(), KitchenOrder.class));
+    }
+
+    private int runChunks(Supplier<Integer> chunk) {
+        int total = 0;
+        for (int i = 0; i < maxChunksPerRun; i++) {
+            int moved;
+            try {
+                moved = transactionTemplate.execute(status -> chunk.get());
+            } catch (OptimisticLockingFailureException e) {
+                // Alguém alterou um registro do lote; fica para a próxima rodada
+                log.warn("Arquivamento interrompido por alteração concorrente: {}", e.getMessage());
+                break;
+            }
+            total += moved;
+            if (moved < chunkSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private int moveOrders(LocalDateTime cutoff) {
+        List<Long> ids = orderRepository.findArchivableIds(cutoff, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Order> orders = orderRepository.findByIdIn(ids);
+        Map<Long, OrderBalance> balances = new HashMap<>();
+        orderBalanceRepository.findByOrderIdIn(ids).forEach(balance -> balances.put(balance.getOrderId(), balance));
+        LocalDateTime now = LocalDateTime.now();
+        orders.forEach(order -> entityManager.persist(toHistory(order, balances.get(order.getId()), now)));
+        orderRepository.deleteAll(orders);
+        orderBalanceRepository.deleteAllInBatch(balances.values());
+        return orders.size();
+    }
+
+    private int moveKitchenOrders(LocalDateTime cutoff) {
+        List<Long> ids = kitchenOrderRepository.findArchivableIds(cutoff, PageRequest.of(0, chunkSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<KitchenOrder> kitchenOrders = kitchenOrderRepository.findByIdIn(ids);
+        LocalDateTime now = LocalDateTime.now();
+        kitchenOrders.forEach(order -> entityManager.persist(toHistory(order, now)));
+        kitchenOrderRepository.deleteAll(kitchenOrders);
+        return kitchenOrders.size();
+    }
+
+    private OrderHistory toHistory(Order order, OrderBalance balance, LocalDateTime archivedAt) {
+        OrderHistory history = new OrderHistory();
+        history.setId(order.getId());
+        history.setTableNumber(order.getTableNumber());
+        history.setStatus(order.getStatus());
+        history.setTotalAmount(order.getTotalAmount());
+        if (balance != null) {
+            history.setPaid(balance.getPaid());
+            history.setPaymentCount(balance.getPaymentCount());
+        }
+        history.setCreatedAt(order.getCreatedAt());
+        history.setClosedAt(order.getUpdatedAt());
+        history.setArchivedAt(archivedAt);
+        history.setPayload(toJson(order));
+        return history;
+    }
+
+    private KitchenOrderHistory toHistory(KitchenOrder order, LocalDateTime archivedAt) {
+        KitchenOrderHistory history = new KitchenOrderHistory();
+        history.setId(order.getId());
+        history.setOrderId(order.getOrderId());
+        history.setTableNumber(order.getTableNumber());
+        history.setStatus(order.getStatus());
+        history.setTotalAmount(order.getTotalAmount());
+        history.setCreatedAt(order.getCreatedAt());
+        history.setClosedAt(order.getUpdatedAt());
+        history.setArchivedAt(archivedAt);
+        history.setPayload(toJson(order));
+        return history;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Erro ao serializar registro para o histórico", e);
+        }
+    }
+
+    // O registro lido do histórico é só para consulta: não está anexado e não deve ser salvo de volta
+    private <T> T fromJson(String payload, Class<T> type) {
+        try {
+            return objectMapper.readValue(payload, type);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Erro ao ler registro do histórico", e);
+        }
+    }
+}
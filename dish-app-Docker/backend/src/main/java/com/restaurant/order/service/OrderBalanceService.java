@@ -0,0 +1,109 @@
+package com.restaurant.order.service;
+
+import com.restaurant.order.model.Money;
+import com.restaurant.order.model.Order;
+import com.restaurant.order.model.OrderBalance;
+import com.restaurant.order.model.OrderHistory;
+import com.restaurant.order.model.Payment;
+import com.restaurant.order.repository.OrderBalanceRepository;
+import com.restaurant.order.repository.OrderHistoryRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Saldo por pedido (order_balances).
+ *
+ * O OrderService grava o valor devido a cada alteração do pedido e o PaymentService
+ * soma ou desfaz o valor de cada pagamento que entra ou sai de COMPLETED, sempre na
+ * mesma transação e com UPDATE incremental, sem somar os pagamentos nem carregar o
+ * pedido. Conferir se uma conta dividida está quitada é uma leitura pela chave.
+ *
+ * O saldo sai de order_balances junto com o pedido: apagado com ele, ou levado para
+ * orders_history pelo OrderArchiver, onde continua recebendo estornos.
+ */
+@Service
+@Transactional
+@Timed("restaurant.service")
+public class OrderBalanceService {
+
+    @Autowired
+    private OrderBalanceRepository orderBalanceRepository;
+
+    @Autowired
+    private OrderHistoryRepository orderHistoryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public Optional<OrderBalance> getBalance(Long orderId) {
+        Optional<OrderBalance> balance = orderBalanceRepository.findById(orderId);
+        if (balance.isPresent()) {
+            return balance;
+        }
+        return orderHistoryRepository.findById(orderId).map(OrderBalanceService::archivedBalance);
+    }
+
+    public void recordDue(Order order) {
+        if (orderBalanceRepository.updateDue(order.getId(), order.getTotalAmount().cents(), LocalDateTime.now()) == 0) {
+            // Pedido novo: o id acabou de sair da sequência, nenhuma outra transação cria esta linha
+            entityManager.persist(new OrderBalance(order.getId(), order.getTotalAmount()));
+        }
+    }
+
+    public void remove(Long orderId) {
+        orderBalanceRepository.deleteById(orderId);
+    }
+
+    // Quanto o pagamento soma hoje no saldo do pedido; null se não está COMPLETED
+    public Money paidBy(Payment payment) {
+        return payment.isCompleted() ? payment.getAmount() : null;
+    }
+
+    public void applyPayment(Long orderId, Money paidBefore, Money paidAfter) {
+        if (Objects.equals(paidBefore, paidAfter)) {
+            return;
+        }
+        long cents = cents(paidAfter) - cents(paidBefore);
+        int payments = (paidAfter != null ? 1 : 0) - (paidBefore != null ? 1 : 0);
+        LocalDateTime now = LocalDateTime.now();
+        if (orderBalanceRepository.addPaid(orderId, cents, payments, now) > 0
+                || orderHistoryRepository.addPaid(orderId, cents, payments) > 0) {
+            return;
+        }
+        // Pagamento de um pedido sem saldo registrado: abre o saldo sem valor devido. O INSERT vai
+        // pelo JDBC da mesma conexão, então perder a corrida para outro pagamento não marca a
+        // transação para rollback; basta repetir o UPDATE sobre a linha que o outro criou.
+        try {
+            jdbcTemplate.update("INSERT INTO order_balances (order_id, due_cents, paid_cents, payment_count, updated_at) VALUES (?, 0, ?, ?, ?)",
+                orderId, cents, payments, now);
+        } catch (DuplicateKeyException e) {
+            orderBalanceRepository.addPaid(orderId, cents, payments, now);
+        }
+    }
+
+    private static OrderBalance archivedBalance(OrderHistory history) {
+        OrderBalance balance = new OrderBalance(history.getId(), history.getTotalAmount());
+        balance.setPaid(history.getPaid());
+        balance.setPaymentCount(history.getPaymentCount());
+        balance.setUpdatedAt(history.getArchivedAt());
+        return balance;
+    }
+
+    private static long cents(Money amount) {
+        return amount != null ? amount.cents() : 0L;
+    }
+}
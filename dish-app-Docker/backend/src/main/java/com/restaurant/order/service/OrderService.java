@@ -1,61 +1,141 @@
 package com.restaurant.order.service;
 
+import com.restaurant.order.dto.CursorPage;
+import com.restaurant.order.dto.ItemOperation;
+import com.restaurant.order.dto.OrderSummary;
+import com.restaurant.order.dto.PageCursor;
+import com.restaurant.order.event.OrderChangedEvent;
+import com.restaurant.order.model.KitchenOrder;
 import com.restaurant.order.model.Order;
 import com.restaurant.order.model.OrderItem;
 import com.restaurant.order.model.OrderStatus;
-import com.restaurant.order.model.KitchenOrder;
-import com.restaurant.order.model.KitchenOrderItem;
 import com.restaurant.order.repository.OrderRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 @Service
 @Transactional
+@Timed("restaurant.service")
 public class OrderService {
     
+    private static final Logger log = LoggerFactory.getLogger(OrderService.class);
+    
     @Autowired
     private OrderRepository orderRepository;
     
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     @Autowired
     private KitchenService kitchenService;
     
+    @Autowired
+    private KitchenOrderSynchronizer kitchenOrderSynchronizer;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private OrderArchiver orderArchiver;
+    
+    @Autowired
+    private OrderBalanceService orderBalanceService;
+    
+    @Autowired
+    private RestaurantMetrics metrics;
+    
+    @Autowired
+    private EtaEstimator etaEstimator;
+    
     public List<Order> getAllOrders() {
         return orderRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
+    public CursorPage<Order> getOrdersPage(String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<Order> fetched = after == null
+            ? orderRepository.findFirstPage(limit)
+            : orderRepository.findPageAfter(after.createdAt(), after.id(), limit);
+        return CursorPage.of(fetched, size, item -> new PageCursor(item.getCreatedAt(), item.getId()));
+    }
+    
+    // Percorre a tabela inteira em blocos (ChunkedExport): uma consulta de itens por bloco, não por pedido
+    @Transactional(readOnly = true)
+    public void forEachOrder(Consumer<Order> action) {
+        PageRequest chunk = PageRequest.of(0, ChunkedExport.CHUNK_SIZE);
+        ChunkedExport.forEach(entityManager,
+            after -> after == null
+                ? orderRepository.findFirstKeys(chunk)
+                : orderRepository.findKeysAfter(after.createdAt(), after.id(), chunk),
+            orderRepository::findByIdIn, Order::getId, action);
+    }
+    
+    // Pedidos encerrados há tempo já saíram da tabela quente: a busca por id cai no histórico
     public Optional<Order> getOrderById(Long id) {
-        return orderRepository.findById(id);
+        return orderRepository.findWithItemsById(id).or(() -> orderArchiver.findArchivedOrder(id));
     }
     
     public List<Order> getOrdersByTable(Integer tableNumber) {
         return orderRepository.findByTableNumber(tableNumber);
     }
     
+    @Transactional(readOnly = true)
+    public List<OrderSummary> getOrderSummaries(OrderStatus status) {
+        return status != null ? orderRepository.findSummariesByStatus(status) : orderRepository.findSummaries();
+    }
+    
     public List<Order> getActiveOrders() {
         return orderRepository.findActiveOrders();
     }
     
     public Order createOrder(Order order) {
-        order.calculateTotal();
-        return orderRepository.save(order);
+        Order savedOrder = saveAndPublish(order);
+        savedOrder.setEstimatedReadyMinutes(etaEstimator.quoteMinutes(savedOrder.getItems()));
+        return savedOrder;
+    }
+    
+    // Pedido ainda não enviado recebe a cotação de agora; na cozinha, a previsão viva da comanda
+    @Transactional(readOnly = true)
+    public Optional<Integer> getEstimatedReadyMinutes(Long id) {
+        Optional<Order> order = orderRepository.findWithItemsById(id);
+        if (order.isEmpty()) {
+            return Optional.empty();
+        }
+        if (order.get().getStatus() == OrderStatus.NEW) {
+            return Optional.of(etaEstimator.quoteMinutes(order.get().getItems()));
+        }
+        return kitchenService.getKitchenOrderByOrderId(id)
+            .flatMap(kitchenOrder -> kitchenService.getRemainingMinutes(kitchenOrder.getId()));
     }
     
     public Order updateOrder(Long id, Order orderDetails) {
-        Optional<Order> optionalOrder = orderRepository.findById(id);
+        Optional<Order> optionalOrder = findForUpdate(id);
         if (optionalOrder.isPresent()) {
             Order order = optionalOrder.get();
             order.setTableNumber(orderDetails.getTableNumber());
             order.setCustomerName(orderDetails.getCustomerName());
             order.setCustomerPhone(orderDetails.getCustomerPhone());
             order.setDeliveryAddress(orderDetails.getDeliveryAddress());
+            OrderStatus previousStatus = order.getStatus();
             order.setStatus(orderDetails.getStatus());
             order.setItems(orderDetails.getItems());
-            order.calculateTotal();
-            Order savedOrder = orderRepository.save(order);
+            Order savedOrder = saveAndPublish(order);
+            metrics.orderTransition(previousStatus, savedOrder.getStatus());
             
             // Se o pedido já foi enviado para a cozinha, sincronizar as mudanças
             if (order.getStatus() == OrderStatus.PREPARING) {
@@ -68,11 +148,13 @@ public class OrderService {
     }
     
     public Order updateOrderStatus(Long id, OrderStatus status) {
-        Optional<Order> optionalOrder = orderRepository.findById(id);
+        Optional<Order> optionalOrder = orderRepository.findWithItemsById(id);
         if (optionalOrder.isPresent()) {
             Order order = optionalOrder.get();
+            OrderStatus previousStatus = order.getStatus();
             order.setStatus(status);
-            Order updatedOrder = orderRepository.save(order);
+            Order updatedOrder = saveAndPublish(order);
+            metrics.orderTransition(previousStatus, status);
             
             // Se o pedido foi enviado para a cozinha, sincronizar com o sistema da cozinha
             if (status == OrderStatus.PREPARING) {
@@ -84,56 +166,70 @@ public class OrderService {
         throw new RuntimeException("Order not found with id: " + id);
     }
     
+    // Aplicado pelo OutboxDispatcher após mudanças na cozinha. Idempotente: no caminho NEW -> PREPARING ->
+    // READY -> DELIVERED o status só avança (e pode pular etapas perdidas); CANCELLED só vale onde
+    // canTransitionTo permite, e PAID/CANCELLED são finais
+    public boolean applyKitchenStatus(Long id, OrderStatus status) {
+        // Atualização só de status: não precisa carregar os itens
+        Optional<Order> optionalOrder = orderRepository.findById(id);
+        if (optionalOrder.isEmpty()) {
+            return false;
+        }
+        
+        Order order = optionalOrder.get();
+        if (!acceptsKitchenStatus(order.getStatus(), status)) {
+            return false;
+        }
+        
+        OrderStatus previousStatus = order.getStatus();
+        order.setStatus(status);
+        saveAndPublish(order);
+        metrics.orderTransition(previousStatus, status);
+        return true;
+    }
+    
+    private static boolean acceptsKitchenStatus(OrderStatus current, OrderStatus incoming) {
+        if (current == OrderStatus.PAID || current == OrderStatus.CANCELLED) {
+            return false;
+        }
+        if (incoming == OrderStatus.CANCELLED) {
+            return current.canTransitionTo(OrderStatus.CANCELLED);
+        }
+        return isKitchenPath(incoming) && current.ordinal() < incoming.ordinal();
+    }
+    
+    private static boolean isKitchenPath(OrderStatus status) {
+        return status == OrderStatus.PREPARING || status == OrderStatus.READY || status == OrderStatus.DELIVERED;
+    }
+    
     private void syncOrderToKitchen(Order order) {
         try {
             // Verificar se já existe um pedido na cozinha com este orderId
             Optional<KitchenOrder> existingKitchenOrder = kitchenService.getKitchenOrderByOrderId(order.getId());
             
             if (existingKitchenOrder.isPresent()) {
-                // Deletar pedido existente na cozinha
-                kitchenService.deleteKitchenOrder(existingKitchenOrder.get().getId());
-            }
-            
-            // Criar novo pedido na cozinha
-            KitchenOrder kitchenOrder = new KitchenOrder();
-            kitchenOrder.setOrderId(order.getId());
-            kitchenOrder.setCustomerName(order.getCustomerName());
-            kitchenOrder.setCustomerPhone(order.getCustomerPhone());
-            kitchenOrder.setDeliveryAddress(order.getDeliveryAddress());
-            kitchenOrder.setTableNumber(order.getTableNumber());
-            kitchenOrder.setStatus(order.getStatus());
-            kitchenOrder.setTotalAmount(order.getTotalAmount());
-            kitchenOrder.setCreatedAt(order.getCreatedAt());
-            kitchenOrder.setUpdatedAt(order.getUpdatedAt());
-            
-            // Converter itens do pedido para itens da cozinha
-            for (OrderItem orderItem : order.getItems()) {
-                KitchenOrderItem kitchenItem = new KitchenOrderItem();
-                kitchenItem.setDishId(orderItem.getDishId());
-                kitchenItem.setDishName(orderItem.getDishName());
-                kitchenItem.setQuantity(orderItem.getQuantity());
-                kitchenItem.setUnitPrice(orderItem.getUnitPrice());
-                kitchenItem.setTotalPrice(orderItem.getTotalPrice());
-                kitchenItem.setPreparationStatus(KitchenOrderItem.PreparationStatus.PENDING);
-                kitchenItem.setKitchenOrder(kitchenOrder);
-                kitchenOrder.getItems().add(kitchenItem);
+                // Aplicar apenas as diferenças, preservando o progresso da cozinha
+                KitchenOrder kitchenOrder = existingKitchenOrder.get();
+                KitchenOrderSynchronizer.SyncResult result = kitchenOrderSynchronizer.merge(order, kitchenOrder);
+                if (result.hasChanges()) {
+                    kitchenService.updateKitchenOrder(kitchenOrder);
+                }
+                log.debug("Pedido {} sincronizado com a cozinha: {}", order.getId(), result);
+            } else {
+                // Criar novo pedido na cozinha
+                KitchenOrder created = kitchenService.createKitchenOrder(kitchenOrderSynchronizer.toKitchenOrder(order));
+                order.setEstimatedReadyMinutes(created.getEstimatedTime());
+                log.debug("Pedido {} enviado para a cozinha", order.getId());
             }
-            
-            // Recalcular total após adicionar itens
-            kitchenOrder.calculateTotal();
-            
-            kitchenService.createKitchenOrder(kitchenOrder);
-            
-            System.out.println("Pedido sincronizado com a cozinha: " + order.getId() + " - Itens: " + order.getItems().size());
         } catch (Exception e) {
             // Log do erro mas não falha a operação principal
-            System.err.println("Erro ao sincronizar pedido com a cozinha: " + e.getMessage());
-            e.printStackTrace();
+            metrics.syncFailure(RestaurantMetrics.SyncDirection.ORDER_TO_KITCHEN);
+            log.warn("Erro ao sincronizar pedido {} com a cozinha", order.getId(), e);
         }
     }
     
     public Order addItemToOrder(Long orderId, OrderItem item) {
-        Optional<Order> optionalOrder = orderRepository.findById(orderId);
+        Optional<Order> optionalOrder = findForUpdate(orderId);
         if (optionalOrder.isPresent()) {
             Order order = optionalOrder.get();
             
@@ -151,8 +247,7 @@ public class OrderService {
                 order.addItem(item);
             }
             
-            order.calculateTotal();
-            Order savedOrder = orderRepository.save(order);
+            Order savedOrder = saveAndPublish(order);
             
             // Se o pedido já foi enviado para a cozinha, sincronizar as mudanças
             if (order.getStatus() == OrderStatus.PREPARING) {
@@ -165,19 +260,18 @@ public class OrderService {
     }
     
     public Order removeItemFromOrder(Long orderId, Long itemId) {
-        Optional<Order> optionalOrder = orderRepository.findById(orderId);
+        Optional<Order> optionalOrder = findForUpdate(orderId);
         if (optionalOrder.isPresent()) {
             Order order = optionalOrder.get();
             
-            // Encontrar e remover o item usando removeIf (com orphanRemoval = true isso vai funcionar)
-            boolean removed = order.getItems().removeIf(item -> item.getId().equals(itemId));
-            
-            if (!removed) {
-                throw new RuntimeException("Item not found with id: " + itemId);
-            }
+            // Remover pelo helper do pedido (orphanRemoval cuida do DELETE e os totais são ajustados)
+            OrderItem item = order.getItems().stream()
+                .filter(i -> i.getId().equals(itemId))
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Item not found with id: " + itemId));
+            order.removeItem(item);
             
-            order.calculateTotal();
-            Order savedOrder = orderRepository.save(order);
+            Order savedOrder = saveAndPublish(order);
             
             // Se o pedido já foi enviado para a cozinha, sincronizar as mudanças
             if (order.getStatus() == OrderStatus.PREPARING) {
@@ -190,7 +284,7 @@ public class OrderService {
     }
     
     public Order updateItemQuantity(Long orderId, Long itemId, Integer quantity) {
-        Optional<Order> optionalOrder = orderRepository.findById(orderId);
+        Optional<Order> optionalOrder = findForUpdate(orderId);
         if (optionalOrder.isPresent()) {
             Order order = optionalOrder.get();
             order.getItems().stream()
@@ -199,8 +293,7 @@ public class OrderService {
                 .ifPresent(item -> {
                     item.setQuantity(quantity);
                 });
-            order.calculateTotal();
-            Order savedOrder = orderRepository.save(order);
+            Order savedOrder = saveAndPublish(order);
             
             // Se o pedido já foi enviado para a cozinha, sincronizar as mudanças
             if (order.getStatus() == OrderStatus.PREPARING) {
@@ -212,8 +305,92 @@ public class OrderService {
         throw new RuntimeException("Order not found with id: " + orderId);
     }
     
+    // Aplica várias alterações de item num único ciclo carregar-alterar-gravar, com uma só sincronização
+    // da cozinha. Tudo ou nada: uma operação inválida desfaz o lote inteiro
+    public Order applyItemOperations(Long orderId, List<ItemOperation> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new IllegalArgumentException("Nenhuma operação informada");
+        }
+        Order order = findForUpdate(orderId)
+            .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        
+        for (ItemOperation operation : operations) {
+            applyItemOperation(order, operation);
+        }
+        
+        Order savedOrder = saveAndPublish(order);
+        
+        // Se o pedido já foi enviado para a cozinha, sincronizar as mudanças
+        if (order.getStatus() == OrderStatus.PREPARING) {
+            syncOrderToKitchen(savedOrder);
+        }
+        
+        return savedOrder;
+    }
+    
+    private void applyItemOperation(Order order, ItemOperation operation) {
+        if (operation == null || operation.op() == null) {
+            throw new IllegalArgumentException("Operação sem tipo");
+        }
+        switch (operation.op()) {
+            case ADD: {
+                if (operation.dishId() == null || operation.dishName() == null || operation.unitPrice() == null) {
+                    throw new IllegalArgumentException("ADD exige dishId, dishName e unitPrice");
+                }
+                int quantity = positiveQuantity(operation);
+                Optional<OrderItem> existing = order.getItems().stream()
+                    .filter(i -> i.getDishId().equals(operation.dishId()))
+                    .findFirst();
+                if (existing.isPresent()) {
+                    existing.get().setQuantity(existing.get().getQuantity() + quantity);
+                } else {
+                    order.addItem(new OrderItem(operation.dishId(), operation.dishName(), quantity, operation.unitPrice()));
+                }
+                break;
+            }
+            case UPDATE:
+                findItem(order, operation.itemId()).setQuantity(positiveQuantity(operation));
+                break;
+            case REMOVE:
+                order.removeItem(findItem(order, operation.itemId()));
+                break;
+        }
+    }
+    
+    private static OrderItem findItem(Order order, Long itemId) {
+        return order.getItems().stream()
+            .filter(i -> i.getId() != null && i.getId().equals(itemId))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Item not found with id: " + itemId));
+    }
+    
+    private static int positiveQuantity(ItemOperation operation) {
+        if (operation.quantity() == null || operation.quantity() <= 0) {
+            throw new IllegalArgumentException("Quantidade inválida: " + operation.quantity());
+        }
+        return operation.quantity();
+    }
+    
     public void deleteOrder(Long id) {
         orderRepository.deleteById(id);
+        orderBalanceService.remove(id);
+        eventPublisher.publishEvent(OrderChangedEvent.deleted(id));
+    }
+    
+    // Toda alteração passa por aqui para que os ouvintes (mapa das mesas) sejam avisados após o commit
+    // e o valor devido no saldo do pedido acompanhe o total
+    private Order saveAndPublish(Order order) {
+        Order savedOrder = orderRepository.save(order);
+        orderBalanceService.recordDue(savedOrder);
+        eventPublisher.publishEvent(OrderChangedEvent.saved(savedOrder));
+        return savedOrder;
+    }
+    
+    // Para alterações que mexem só nos itens: a versão do agregado sobe mesmo sem mudar a linha do pai.
+    // O lock vai só na raiz; com o entity graph na mesma consulta ele alcançaria os itens, que não têm @Version
+    private Optional<Order> findForUpdate(Long id) {
+        Optional<Order> found = orderRepository.findWithItemsById(id);
+        found.ifPresent(entity -> entityManager.lock(entity, LockModeType.OPTIMISTIC_FORCE_INCREMENT));
+        return found;
     }
 }
-
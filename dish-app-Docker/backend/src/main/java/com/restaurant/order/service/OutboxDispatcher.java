@@ -0,0 +1,180 @@
+package com.restaurant.order.service;
+
+import com.restaurant.order.model.OrderStatus;
+import com.restaurant.order.model.OutboxMessage;
+import com.restaurant.order.repository.OutboxMessageRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drena a tabela de outbox em segundo plano.
+ *
+ * Depois do commit o id da mensagem entra numa fila limitada; uma única thread
+ * consome a fila em lotes, cada lote numa transação. Se o lote falhar, as
+ * mensagens são reprocessadas uma a uma e a que falhou ganha nova tentativa com
+ * backoff. A varredura periódica recupera o que não coube na fila ou ficou
+ * pendente após um restart.
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RestaurantMetrics metrics;
+
+    @Value("${outbox.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.retry-backoff-ms:500}")
+    private long retryBackoffMs;
+
+    @Value("${outbox.retention-hours:24}")
+    private long retentionHours;
+
+    private BlockingQueue<Long> queue;
+    private TransactionTemplate transactionTemplate;
+    private Thread worker;
+    private volatile boolean running;
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        running = true;
+        worker = new Thread(this::drainLoop, "outbox-dispatcher");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        worker.interrupt();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMessageSaved(OutboxMessage message) {
+        // Fila cheia não é erro: a varredura periódica encontra a mensagem no banco
+        queue.offer(message.getId());
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.sweep-interval-ms:5000}")
+    public void sweep() {
+        List<Long> ids = outboxMessageRepository.findDispatchableIds(LocalDateTime.now(), PageRequest.of(0, batchSize));
+        for (Long id : ids) {
+            if (!queue.offer(id)) {
+                break;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.purge-interval-ms:3600000}")
+    public void purgeProcessed() {
+        int purged = outboxMessageRepository.deleteProcessedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (purged > 0) {
+            log.debug("Outbox: {} mensagens processadas removidas", purged);
+        }
+    }
+
+    private void drainLoop() {
+        List<Long> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                Long first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                dispatch(new LinkedHashSet<>(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Outbox: falha inesperada no dispatcher", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void dispatch(LinkedHashSet<Long> ids) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> ids.forEach(this::process));
+        } catch (RuntimeException batchFailure) {
+            // Isolar a mensagem problemática para não travar o restante do lote
+            for (Long id : ids) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> process(id));
+                } catch (RuntimeException e) {
+                    log.warn("Outbox: falha ao aplicar mensagem {}: {}", id, e.getMessage());
+                    transactionTemplate.executeWithoutResult(status -> recordFailure(id, e));
+                }
+            }
+        }
+    }
+
+    private void process(Long id) {
+        OutboxMessage message = outboxMessageRepository.findById(id).orElse(null);
+        if (message == null || !message.isPending() || message.getNextAttemptAt().isAfter(LocalDateTime.now())) {
+            return;
+        }
+
+        switch (message.getEventType()) {
+            case ORDER_STATUS_CHANGED:
+                orderService.applyKitchenStatus(message.getAggregateId(), OrderStatus.valueOf(message.getPayload()));
+                break;
+            default:
+                throw new IllegalStateException("Tipo de evento desconhecido: " + message.getEventType());
+        }
+
+        message.markProcessed();
+    }
+
+    private void recordFailure(Long id, RuntimeException error) {
+        metrics.syncFailure(RestaurantMetrics.SyncDirection.KITCHEN_TO_ORDER);
+        outboxMessageRepository.findById(id).ifPresent(message -> {
+            message.markFailedAttempt(error.getMessage(), maxAttempts, retryBackoffMs);
+            if (message.getStatus() == OutboxMessage.OutboxStatus.FAILED) {
+                log.error("Outbox: mensagem {} descartada após {} tentativas", id, message.getAttempts());
+            }
+        });
+    }
+}
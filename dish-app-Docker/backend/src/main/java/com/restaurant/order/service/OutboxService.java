@@ -0,0 +1,31 @@
+package com.restaurant.order.service;
+
+import com.restaurant.order.model.OrderStatus;
+import com.restaurant.order.model.OutboxMessage;
+import com.restaurant.order.repository.OutboxMessageRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+@Timed("restaurant.service")
+public class OutboxService {
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // Gravado na mesma transação da alteração na cozinha; o OutboxDispatcher aplica depois do commit
+    public OutboxMessage enqueueOrderStatusChange(Long orderId, OrderStatus status) {
+        OutboxMessage message = outboxMessageRepository.save(
+            new OutboxMessage(OutboxMessage.EventType.ORDER_STATUS_CHANGED, orderId, status.name()));
+        eventPublisher.publishEvent(message);
+        return message;
+    }
+}
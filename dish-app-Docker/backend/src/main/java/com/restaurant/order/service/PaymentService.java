@@ -1,28 +1,70 @@
 package com.restaurant.order.service;
 
-import com.restaurant.order.model.Payment;
+import com.restaurant.order.dto.CursorPage;
+import com.restaurant.order.dto.PageCursor;
+import com.restaurant.order.dto.RevenueReport;
 import com.restaurant.order.model.Payment.PaymentMethod;
 import com.restaurant.order.model.Payment.PaymentStatus;
+import com.restaurant.order.model.Money;
+import com.restaurant.order.model.OrderBalance;
+import com.restaurant.order.model.Payment;
 import com.restaurant.order.repository.PaymentRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
+@Timed("restaurant.service")
 public class PaymentService {
     
     @Autowired
     private PaymentRepository paymentRepository;
     
+    @Autowired
+    private RevenueRollupService revenueRollupService;
+    
+    @Autowired
+    private OrderBalanceService orderBalanceService;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
     public List<Payment> getAllPayments() {
         return paymentRepository.findAll();
     }
     
+    @Transactional(readOnly = true)
+    public CursorPage<Payment> getPaymentsPage(String cursor, int size) {
+        PageCursor after = PageCursor.decode(cursor);
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<Payment> fetched = after == null
+            ? paymentRepository.findFirstPage(limit)
+            : paymentRepository.findPageAfter(after.createdAt(), after.id(), limit);
+        return CursorPage.of(fetched, size, item -> new PageCursor(item.getCreatedAt(), item.getId()));
+    }
+    
+    // Percorre a tabela inteira com memória constante: cada registro é desanexado depois de entregue
+    @Transactional(readOnly = true)
+    public void forEachPayment(Consumer<Payment> action) {
+        try (Stream<Payment> stream = paymentRepository.streamAll()) {
+            stream.forEach(item -> {
+                action.accept(item);
+                entityManager.detach(item);
+            });
+        }
+    }
+    
     public List<Payment> getPaymentsByOrderId(Long orderId) {
         return paymentRepository.findByOrderId(orderId);
     }
@@ -43,21 +85,22 @@ public class PaymentService {
         return paymentRepository.findById(id);
     }
     
-    public Payment createPayment(Long orderId, Double amount, PaymentMethod paymentMethod) {
+    public Payment createPayment(Long orderId, Money amount, PaymentMethod paymentMethod) {
         Payment payment = new Payment(orderId, amount, paymentMethod);
         return paymentRepository.save(payment);
     }
     
-    public Payment processCashPayment(Long paymentId, Double cashReceived, String processedBy) {
+    public Payment processCashPayment(Long paymentId, Money cashReceived, String processedBy) {
         Optional<Payment> optionalPayment = paymentRepository.findById(paymentId);
         if (optionalPayment.isPresent()) {
             Payment payment = optionalPayment.get();
+            Recorded before = recordedOf(payment);
             
             if (payment.getPaymentMethod() != PaymentMethod.CASH) {
                 throw new IllegalArgumentException("Este pagamento não é em dinheiro");
             }
             
-            if (cashReceived < payment.getAmount()) {
+            if (cashReceived.isLessThan(payment.getAmount())) {
                 throw new IllegalArgumentException("Valor recebido é menor que o valor do pagamento");
             }
             
@@ -66,7 +109,7 @@ public class PaymentService {
             payment.setProcessedBy(processedBy);
             payment.setProcessedAt(LocalDateTime.now());
             
-            return paymentRepository.save(payment);
+            return saveAndRecord(payment, before);
         }
         throw new RuntimeException("Pagamento não encontrado com id: " + paymentId);
     }
@@ -75,6 +118,7 @@ public class PaymentService {
         Optional<Payment> optionalPayment = paymentRepository.findById(paymentId);
         if (optionalPayment.isPresent()) {
             Payment payment = optionalPayment.get();
+            Recorded before = recordedOf(payment);
             
             if (payment.getPaymentMethod() == PaymentMethod.CASH) {
                 throw new IllegalArgumentException("Este pagamento é em dinheiro, não cartão");
@@ -86,7 +130,7 @@ public class PaymentService {
             payment.setProcessedBy(processedBy);
             payment.setProcessedAt(LocalDateTime.now());
             
-            return paymentRepository.save(payment);
+            return saveAndRecord(payment, before);
         }
         throw new RuntimeException("Pagamento não encontrado com id: " + paymentId);
     }
@@ -95,6 +139,7 @@ public class PaymentService {
         Optional<Payment> optionalPayment = paymentRepository.findById(paymentId);
         if (optionalPayment.isPresent()) {
             Payment payment = optionalPayment.get();
+            Recorded before = recordedOf(payment);
             
             if (payment.getPaymentMethod() != PaymentMethod.PIX) {
                 throw new IllegalArgumentException("Este pagamento não é PIX");
@@ -105,7 +150,7 @@ public class PaymentService {
             payment.setProcessedBy(processedBy);
             payment.setProcessedAt(LocalDateTime.now());
             
-            return paymentRepository.save(payment);
+            return saveAndRecord(payment, before);
         }
         throw new RuntimeException("Pagamento não encontrado com id: " + paymentId);
     }
@@ -114,11 +159,12 @@ public class PaymentService {
         Optional<Payment> optionalPayment = paymentRepository.findById(id);
         if (optionalPayment.isPresent()) {
             Payment payment = optionalPayment.get();
+            Recorded before = recordedOf(payment);
             payment.setStatus(status);
             if (status == PaymentStatus.COMPLETED && payment.getProcessedAt() == null) {
                 payment.setProcessedAt(LocalDateTime.now());
             }
-            return paymentRepository.save(payment);
+            return saveAndRecord(payment, before);
         }
         throw new RuntimeException("Pagamento não encontrado com id: " + id);
     }
@@ -133,30 +179,46 @@ public class PaymentService {
         throw new RuntimeException("Pagamento não encontrado com id: " + id);
     }
     
-    public Double getTotalRevenueByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        Double total = paymentRepository.getTotalRevenueByDateRange(startDate, endDate);
-        return total != null ? total : 0.0;
-    }
-    
-    public List<Object[]> getRevenueByPaymentMethod(LocalDateTime startDate, LocalDateTime endDate) {
-        return paymentRepository.getRevenueByPaymentMethod(startDate, endDate);
-    }
-    
-    public Long getCompletedPaymentsCountByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return paymentRepository.countCompletedPaymentsByDateRange(startDate, endDate);
+    // Relatório montado a partir dos buckets por hora (revenue_rollups)
+    @Transactional(readOnly = true)
+    public RevenueReport getRevenueReport(LocalDateTime startDate, LocalDateTime endDate) {
+        return revenueRollupService.getRevenue(startDate, endDate);
     }
     
     public List<Payment> getPaymentsByProcessedBy(String processedBy) {
         return paymentRepository.findByProcessedBy(processedBy);
     }
     
+    public Optional<OrderBalance> getOrderBalance(Long orderId) {
+        return orderBalanceService.getBalance(orderId);
+    }
+    
     public boolean isOrderFullyPaid(Long orderId) {
-        List<Payment> completedPayments = getCompletedPaymentsByOrderId(orderId);
-        // Aqui você pode implementar lógica para verificar se o total pago é igual ao valor do pedido
-        return !completedPayments.isEmpty();
+        return orderBalanceService.getBalance(orderId).map(OrderBalance::isFullyPaid).orElse(false);
     }
     
     public void deletePayment(Long id) {
-        paymentRepository.deleteById(id);
+        paymentRepository.findById(id).ifPresent(payment -> {
+            Recorded before = recordedOf(payment);
+            revenueRollupService.apply(before.revenue(), null);
+            orderBalanceService.applyPayment(payment.getOrderId(), before.paid(), null);
+            paymentRepository.delete(payment);
+        });
+    }
+    
+    // Faturamento por hora e saldo do pedido andam junto com o pagamento, na mesma transação
+    private Payment saveAndRecord(Payment payment, Recorded before) {
+        Payment saved = paymentRepository.save(payment);
+        Recorded after = recordedOf(saved);
+        revenueRollupService.apply(before.revenue(), after.revenue());
+        orderBalanceService.applyPayment(saved.getOrderId(), before.paid(), after.paid());
+        return saved;
+    }
+    
+    private Recorded recordedOf(Payment payment) {
+        return new Recorded(revenueRollupService.contributionOf(payment), orderBalanceService.paidBy(payment));
+    }
+    
+    private record Recorded(RevenueRollupService.Contribution revenue, Money paid) {
     }
 }
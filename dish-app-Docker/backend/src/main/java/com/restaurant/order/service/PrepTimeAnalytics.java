@@ -0,0 +1,184 @@
+package com.restaurant.order.service;
+
+import com.restaurant.order.dto.PrepTimeReport;
+import com.restaurant.order.dto.PrepTimeReport.DishPrepTime;
+import com.restaurant.order.dto.PrepTimeReport.HourPrepTime;
+import com.restaurant.order.dto.PrepTimeReport.Percentiles;
+import com.restaurant.order.event.KitchenOrderChangedEvent;
+import com.restaurant.order.model.KitchenOrder;
+import com.restaurant.order.model.KitchenOrderItem;
+import com.restaurant.order.model.OrderStatus;
+import com.restaurant.order.repository.KitchenOrderRepository;
+import jakarta.persistence.Persistence;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Distribuição dos tempos de preparo (startedAt -> readyAt) por prato e por hora do dia.
+ *
+ * Cada comanda que chega a READY grava a duração, em segundos, num HdrHistogram Recorder
+ * geral, no da hora em que o preparo começou e no de cada prato da comanda. A gravação
+ * não trava; o relatório drena os recorders em histogramas acumulados e lê os percentis
+ * deles, sem consultar o histórico no banco. Na subida os acumulados são preenchidos
+ * com as comandas prontas nas últimas analytics.prep-times.bootstrap-hours horas.
+ */
+@Component
+public class PrepTimeAnalytics {
+
+    private static final Logger log = LoggerFactory.getLogger(PrepTimeAnalytics.class);
+
+    // Acima de 6 horas o valor é registrado como 6 horas
+    private static final long MAX_SECONDS = Duration.ofHours(6).toSeconds();
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    @Autowired
+    private KitchenOrderRepository kitchenOrderRepository;
+
+    @Value("${analytics.prep-times.bootstrap-hours:24}")
+    private long bootstrapHours;
+
+    private final Series overall = new Series();
+    private final Series[] byHour = new Series[24];
+    private final Map<Long, DishSeries> byDish = new ConcurrentHashMap<>();
+    // Serializa as leituras: drenar o Recorder e somar no acumulado não pode rodar em paralelo
+    private final ReentrantLock readLock = new ReentrantLock();
+    private volatile LocalDateTime since = LocalDateTime.now();
+
+    public PrepTimeAnalytics() {
+        for (int hour = 0; hour < byHour.length; hour++) {
+            byHour[hour] = new Series();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void bootstrap() {
+        LocalDateTime before = LocalDateTime.now();
+        LocalDateTime from = before.minusHours(bootstrapHours);
+        Set<Long> seenOrders = new HashSet<>();
+        List<Object[]> rows = kitchenOrderRepository.findPrepTimes(from, before);
+        for (Object[] row : rows) {
+            LocalDateTime startedAt = (LocalDateTime) row[3];
+            LocalDateTime readyAt = (LocalDateTime) row[4];
+            if (seenOrders.add((Long) row[0])) {
+                recordOrder(startedAt, readyAt);
+            }
+            recordDish((Long) row[1], (String) row[2], startedAt, readyAt);
+        }
+        since = from;
+        log.info("Tempos de preparo carregados: {} comandas desde {}", seenOrders.size(), from);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onKitchenOrderChanged(KitchenOrderChangedEvent event) {
+        if (!event.isStatusChange() || event.getKitchenOrder().getStatus() != OrderStatus.READY) {
+            return;
+        }
+        KitchenOrder order = withItems(event.getKitchenOrder());
+        if (order != null) {
+            record(order);
+        }
+    }
+
+    void record(KitchenOrder order) {
+        if (order.getStartedAt() == null || order.getReadyAt() == null) {
+            // Comanda que foi direto de NEW para READY: não há início de preparo para medir
+            return;
+        }
+        recordOrder(order.getStartedAt(), order.getReadyAt());
+        for (KitchenOrderItem item : order.getItems()) {
+            recordDish(item.getDishId(), item.getDishName(), order.getStartedAt(), order.getReadyAt());
+        }
+    }
+
+    public PrepTimeReport getReport(int minSamples) {
+        readLock.lock();
+        try {
+            List<DishPrepTime> dishes = new ArrayList<>();
+            for (Map.Entry<Long, DishSeries> entry : byDish.entrySet()) {
+                Percentiles stats = entry.getValue().series().snapshot();
+                if (stats.count() >= Math.max(1, minSamples)) {
+                    dishes.add(new DishPrepTime(entry.getKey(), entry.getValue().name(), stats));
+                }
+            }
+            dishes.sort(Comparator.comparingLong((DishPrepTime dish) -> dish.prepSeconds().p90()).reversed()
+                .thenComparing(DishPrepTime::dishId));
+
+            List<HourPrepTime> hours = new ArrayList<>();
+            for (int hour = 0; hour < byHour.length; hour++) {
+                Percentiles stats = byHour[hour].snapshot();
+                if (stats.count() > 0) {
+                    hours.add(new HourPrepTime(hour, stats));
+                }
+            }
+            return new PrepTimeReport(since, overall.snapshot(), dishes, hours);
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private void recordOrder(LocalDateTime startedAt, LocalDateTime readyAt) {
+        long seconds = seconds(startedAt, readyAt);
+        overall.record(seconds);
+        byHour[startedAt.getHour()].record(seconds);
+    }
+
+    private void recordDish(Long dishId, String dishName, LocalDateTime startedAt, LocalDateTime readyAt) {
+        if (dishId == null) {
+            return;
+        }
+        DishSeries dish = byDish.computeIfAbsent(dishId, id -> new DishSeries(dishName, new Series()));
+        dish.series().record(seconds(startedAt, readyAt));
+    }
+
+    // O evento traz a instância desanexada; os itens (LAZY) podem não ter sido carregados
+    private KitchenOrder withItems(KitchenOrder order) {
+        if (Persistence.getPersistenceUtil().isLoaded(order, "items")) {
+            return order;
+        }
+        return kitchenOrderRepository.findWithItemsById(order.getId()).orElse(null);
+    }
+
+    private static long seconds(LocalDateTime startedAt, LocalDateTime readyAt) {
+        long seconds = Duration.between(startedAt, readyAt).toSeconds();
+        return Math.max(0, Math.min(seconds, MAX_SECONDS));
+    }
+
+    private record DishSeries(String name, Series series) {
+    }
+
+    // Recorder para gravação concorrente; o acumulado só é tocado com o readLock tomado
+    private static final class Series {
+        private final Recorder recorder = new Recorder(MAX_SECONDS, SIGNIFICANT_DIGITS);
+        private final Histogram total = new Histogram(MAX_SECONDS, SIGNIFICANT_DIGITS);
+        private Histogram interval;
+
+        void record(long seconds) {
+            recorder.recordValue(seconds);
+        }
+
+        Percentiles snapshot() {
+            interval = recorder.getIntervalHistogram(interval);
+            total.add(interval);
+            return Percentiles.of(total);
+        }
+    }
+}
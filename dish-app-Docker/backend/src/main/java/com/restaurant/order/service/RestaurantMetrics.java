@@ -0,0 +1,106 @@
+package com.restaurant.order.service;
+
+import com.restaurant.order.event.KitchenOrderChangedEvent;
+import com.restaurant.order.model.OrderStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Contadores de negócio do order-service: transições de status e falhas de sincronização.
+ *
+ * Todos os contadores são registrados na subida, um por combinação de tags, e guardados
+ * em EnumMap; o caminho quente só faz um lookup e um increment, sem montar tags nem
+ * nomes. As transições só contam depois do commit, para que tentativas desfeitas
+ * (conflito de versão, rollback) não inflem os números.
+ */
+@Component
+public class RestaurantMetrics {
+
+    public enum SyncDirection {
+        // OrderService -> comanda da cozinha
+        ORDER_TO_KITCHEN("order_to_kitchen"),
+        // Outbox: status da cozinha -> pedido
+        KITCHEN_TO_ORDER("kitchen_to_order");
+
+        private final String tag;
+
+        SyncDirection(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private final Map<OrderStatus, Map<OrderStatus, Counter>> orderTransitions = new EnumMap<>(OrderStatus.class);
+    private final Map<OrderStatus, Map<OrderStatus, Counter>> kitchenTransitions = new EnumMap<>(OrderStatus.class);
+    private final Map<SyncDirection, Counter> syncFailures = new EnumMap<>(SyncDirection.class);
+
+    @PostConstruct
+    void init() {
+        registerTransitions("order", orderTransitions);
+        registerTransitions("kitchen", kitchenTransitions);
+        for (SyncDirection direction : SyncDirection.values()) {
+            syncFailures.put(direction, Counter.builder("restaurant.sync.failures")
+                .description("Falhas ao propagar alterações entre pedido e cozinha")
+                .tag("direction", direction.tag)
+                .register(registry));
+        }
+    }
+
+    public void orderTransition(OrderStatus from, OrderStatus to) {
+        if (from == null || to == null || from == to) {
+            return;
+        }
+        Counter counter = orderTransitions.get(from).get(to);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    counter.increment();
+                }
+            });
+        } else {
+            counter.increment();
+        }
+    }
+
+    // O evento já chega depois do commit e traz o status anterior
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onKitchenOrderChanged(KitchenOrderChangedEvent event) {
+        if (event.isStatusChange()) {
+            kitchenTransitions.get(event.getPreviousStatus()).get(event.getKitchenOrder().getStatus()).increment();
+        }
+    }
+
+    public void syncFailure(SyncDirection direction) {
+        syncFailures.get(direction).increment();
+    }
+
+    private void registerTransitions(String source, Map<OrderStatus, Map<OrderStatus, Counter>> target) {
+        for (OrderStatus from : OrderStatus.values()) {
+            Map<OrderStatus, Counter> byTarget = new EnumMap<>(OrderStatus.class);
+            for (OrderStatus to : OrderStatus.values()) {
+                if (to == from) {
+                    continue;
+                }
+                byTarget.put(to, Counter.builder("restaurant.status.transitions")
+                    .description("Mudanças de status confirmadas")
+                    .tag("source", source)
+                    .tag("from", from.name())
+                    .tag("to", to.name())
+                    .register(registry));
+            }
+            target.put(from, byTarget);
+        }
+    }
+}
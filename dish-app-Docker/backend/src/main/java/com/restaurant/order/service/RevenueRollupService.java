@@ -0,0 +1,129 @@
+package com.restaurant.order.service;
+
+import com.restaurant.order.dto.RevenueReport;
+import com.restaurant.order.model.Payment;
+import com.restaurant.order.model.Payment.PaymentMethod;
+import com.restaurant.order.model.RevenueRollup;
+import com.restaurant.order.repository.PaymentRepository;
+import com.restaurant.order.repository.RevenueRollupRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Faturamento pré-agregado por hora.
+ *
+ * Cada pagamento COMPLETED soma seu valor no bucket (hora do created_at, método,
+ * operador) na mesma transação em que o PaymentService o grava; estornos, exclusões e
+ * mudanças de status desfazem a contribuição. Os relatórios juntam os buckets das
+ * horas cheias e só vão à tabela payments para as frações de hora nas pontas do
+ * intervalo, então o resultado é o mesmo das consultas diretas.
+ */
+@Service
+@Transactional
+@Timed("restaurant.service")
+public class RevenueRollupService {
+
+    @Autowired
+    private RevenueRollupRepository revenueRollupRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // O que o pagamento soma hoje nos buckets; null se não conta como faturamento
+    public Contribution contributionOf(Payment payment) {
+        if (!payment.isCompleted() || payment.getCreatedAt() == null || payment.getAmount() == null) {
+            return null;
+        }
+        String processedBy = payment.getProcessedBy() != null ? payment.getProcessedBy() : "";
+        RevenueRollup.Key key = new RevenueRollup.Key(bucketOf(payment.getCreatedAt()), payment.getPaymentMethod(), processedBy);
+        return new Contribution(key, payment.getAmount().cents());
+    }
+
+    // Troca a contribuição antiga pela nova; deve rodar na transação que grava o pagamento
+    public void apply(Contribution before, Contribution after) {
+        if (Objects.equals(before, after)) {
+            return;
+        }
+        if (before != null) {
+            add(before.key(), -before.cents(), -1);
+        }
+        if (after != null) {
+            add(after.key(), after.cents(), 1);
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public RevenueReport getRevenue(LocalDateTime start, LocalDateTime end) {
+        RevenueReport.Builder report = RevenueReport.builder();
+        if (end.isBefore(start)) {
+            return report.build();
+        }
+
+        LocalDateTime firstBucket = ceilToHour(start);
+        LocalDateTime lastBucketEnd = end.truncatedTo(ChronoUnit.HOURS);
+        if (!firstBucket.isBefore(lastBucketEnd)) {
+            // Nenhuma hora cheia no intervalo: a consulta direta lê no máximo duas horas do índice
+            addRows(report, paymentRepository.summarizeCompletedThrough(start, end));
+            return report.build();
+        }
+
+        if (start.isBefore(firstBucket)) {
+            addRows(report, paymentRepository.summarizeCompletedBefore(start, firstBucket));
+        }
+        addRows(report, revenueRollupRepository.summarizeBuckets(firstBucket, lastBucketEnd));
+        addRows(report, paymentRepository.summarizeCompletedThrough(lastBucketEnd, end));
+        return report.build();
+    }
+
+    private void add(RevenueRollup.Key key, long cents, long count) {
+        if (increment(key, cents, count)) {
+            return;
+        }
+        // Primeiro pagamento do bucket: a linha nasce já com o valor, na mesma transação e conexão.
+        // O INSERT vai pelo JDBC, então perder a corrida para outro pagamento não marca a transação
+        // para rollback; basta repetir o UPDATE sobre a linha que o outro criou
+        try {
+            jdbcTemplate.update("INSERT INTO revenue_rollups (bucket_start, payment_method, processed_by, total_cents, payment_count) VALUES (?, ?, ?, ?, ?)",
+                key.getBucketStart(), key.getPaymentMethod().name(), key.getProcessedBy(), cents, count);
+        } catch (DuplicateKeyException e) {
+            if (!increment(key, cents, count)) {
+                throw new IllegalStateException("Bucket de faturamento não encontrado: " + key.getBucketStart());
+            }
+        }
+    }
+
+    private boolean increment(RevenueRollup.Key key, long cents, long count) {
+        return revenueRollupRepository.increment(key.getBucketStart(), key.getPaymentMethod(), key.getProcessedBy(), cents, count) > 0;
+    }
+
+    private static void addRows(RevenueReport.Builder report, List<Object[]> rows) {
+        for (Object[] row : rows) {
+            report.add(PaymentMethod.valueOf(row[0].toString()), (String) row[1],
+                ((Number) row[2]).longValue(), ((Number) row[3]).longValue());
+        }
+    }
+
+    private static LocalDateTime bucketOf(LocalDateTime createdAt) {
+        return createdAt.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private static LocalDateTime ceilToHour(LocalDateTime time) {
+        LocalDateTime hour = time.truncatedTo(ChronoUnit.HOURS);
+        return hour.equals(time) ? hour : hour.plusHours(1);
+    }
+
+    public record Contribution(RevenueRollup.Key key, long cents) {
+    }
+}
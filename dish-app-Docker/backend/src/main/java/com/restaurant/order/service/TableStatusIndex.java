@@ -0,0 +1,193 @@
+package com.restaurant.order.service;
+
+import com.restaurant.order.dto.OrderSummary;
+import com.restaurant.order.dto.TableStatus;
+import com.restaurant.order.event.OrderChangedEvent;
+import com.restaurant.order.model.Money;
+import com.restaurant.order.model.Order;
+import com.restaurant.order.model.OrderStatus;
+import com.restaurant.order.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Pedidos ativos por mesa, para o mapa do salão.
+ *
+ * As mesas do salão (1 a floor.table-count) ficam num array de tamanho fixo indexado
+ * pelo número da mesa; cada posição guarda um slot imutável com os resumos dos pedidos
+ * ativos daquela mesa. Um pedido numa mesa fora dessa faixa vai para um mapa à parte,
+ * que só tem entradas enquanto houver pedido ativo nelas, então o número enviado pelo
+ * cliente nunca dimensiona memória.
+ * As leituras não travam; as escritas chegam pelos eventos do OrderService depois
+ * do commit e trocam o slot inteiro. É reconstruído a partir do banco quando a
+ * aplicação sobe.
+ */
+@Component
+public class TableStatusIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TableStatusIndex.class);
+
+    private static final TableSlot EMPTY = new TableSlot(Map.of());
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Value("${floor.table-count:60}")
+    private int tableCount;
+
+    private final Object writeLock = new Object();
+    private final Map<Long, Integer> tableByOrder = new ConcurrentHashMap<>();
+    private final Map<Integer, TableSlot> otherTables = new ConcurrentHashMap<>();
+    private volatile AtomicReferenceArray<TableSlot> slots;
+    private volatile boolean ready;
+
+    @PostConstruct
+    void init() {
+        slots = new AtomicReferenceArray<>(Math.max(tableCount + 1, 1));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (writeLock) {
+            List<OrderSummary> active = orderRepository.findActiveSummaries();
+            slots = new AtomicReferenceArray<>(Math.max(tableCount + 1, 1));
+            tableByOrder.clear();
+            otherTables.clear();
+            active.forEach(summary -> put(summary, null));
+            ready = true;
+        }
+        log.info("Índice de mesas carregado com {} pedidos ativos", tableByOrder.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        synchronized (writeLock) {
+            Order order = event.getOrder();
+            if (order != null && isStale(order)) {
+                // Commits concorrentes podem entregar os eventos fora de ordem
+                return;
+            }
+            remove(event.getOrderId());
+            if (order != null && order.getStatus() != null && order.getStatus().isActive() && order.getTableNumber() != null) {
+                put(OrderSummary.of(order), order.getVersion());
+            }
+        }
+    }
+
+    // Todas as mesas de 1 até floor.table-count, mais as de fora da faixa que têm pedido ativo
+    public List<TableStatus> getAllTables() {
+        if (!ready) {
+            // Chamado antes do ApplicationReadyEvent: carrega do banco na hora
+            rebuild();
+        }
+        AtomicReferenceArray<TableSlot> current = slots;
+        LocalDateTime now = LocalDateTime.now();
+        List<TableStatus> tables = new ArrayList<>(current.length() - 1);
+        for (int table = 1; table < current.length(); table++) {
+            TableSlot slot = current.get(table);
+            if (slot == null || slot.orders().isEmpty()) {
+                tables.add(new TableStatus(table, false, null, 0, List.of(), Money.ZERO, null, null));
+                continue;
+            }
+            tables.add(slot.toStatus(table, now));
+        }
+        otherTables.entrySet().stream()
+            .sorted(Map.Entry.comparingByKey())
+            .forEach(entry -> tables.add(entry.getValue().toStatus(entry.getKey(), now)));
+        return tables;
+    }
+
+    private void put(OrderSummary summary, Long version) {
+        int table = summary.tableNumber();
+        TableSlot slot = slotOf(table);
+        Map<Long, Entry> orders = new HashMap<>(slot != null ? slot.orders() : Map.of());
+        orders.put(summary.id(), new Entry(summary, version));
+        setSlot(table, new TableSlot(Map.copyOf(orders)));
+        tableByOrder.put(summary.id(), table);
+    }
+
+    private boolean isStale(Order incoming) {
+        Integer table = tableByOrder.get(incoming.getId());
+        if (table == null || incoming.getVersion() == null) {
+            return false;
+        }
+        TableSlot slot = slotOf(table);
+        Entry current = slot != null ? slot.orders().get(incoming.getId()) : null;
+        return current != null && current.version() != null && incoming.getVersion() < current.version();
+    }
+
+    private void remove(Long orderId) {
+        Integer table = tableByOrder.remove(orderId);
+        if (table == null) {
+            return;
+        }
+        TableSlot slot = slotOf(table);
+        if (slot == null) {
+            return;
+        }
+        Map<Long, Entry> orders = new HashMap<>(slot.orders());
+        orders.remove(orderId);
+        setSlot(table, orders.isEmpty() ? null : new TableSlot(Map.copyOf(orders)));
+    }
+
+    private boolean isFloorTable(int table) {
+        return table >= 1 && table < slots.length();
+    }
+
+    private TableSlot slotOf(int table) {
+        return isFloorTable(table) ? slots.get(table) : otherTables.get(table);
+    }
+
+    // Slot vazio: EMPTY no array; fora do salão a mesa sai do mapa
+    private void setSlot(int table, TableSlot slot) {
+        if (isFloorTable(table)) {
+            slots.set(table, slot != null ? slot : EMPTY);
+        } else if (slot != null) {
+            otherTables.put(table, slot);
+        } else {
+            otherTables.remove(table);
+        }
+    }
+
+    private record Entry(OrderSummary summary, Long version) {
+    }
+
+    private record TableSlot(Map<Long, Entry> orders) {
+
+        TableStatus toStatus(int table, LocalDateTime now) {
+            List<OrderSummary> active = orders.values().stream()
+                .map(Entry::summary)
+                .sorted(Comparator.comparing(OrderSummary::createdAt, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+            OrderStatus status = active.stream()
+                .map(OrderSummary::status)
+                .min(Comparator.naturalOrder())
+                .orElse(null);
+            Money total = active.stream()
+                .map(OrderSummary::totalAmount)
+                .filter(amount -> amount != null)
+                .reduce(Money.ZERO, Money::plus);
+            LocalDateTime since = active.get(0).createdAt();
+            Long ageSeconds = since != null ? Duration.between(since, now).getSeconds() : null;
+            return new TableStatus(table, true, status, active.size(),
+                active.stream().map(OrderSummary::id).toList(), total, since, ageSeconds);
+        }
+    }
+}
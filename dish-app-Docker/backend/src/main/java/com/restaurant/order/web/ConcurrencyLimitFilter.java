@@ -0,0 +1,195 @@
+package com.restaurant.order.web;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limita quantas requisições executam ao mesmo tempo, proporcional ao pool JDBC.
+ *
+ * Com threads virtuais o Tomcat deixa de ter teto de threads e milhares de
+ * requisições chegariam juntas ao Hikari, esperando conexão até estourar o
+ * connection-timeout. Aqui elas esperam num semáforo justo (FIFO) por no máximo
+ * concurrency.limit.queue-timeout-ms e, se não houver vaga, recebem 503 com
+ * Retry-After. O feed SSE fica de fora: a conexão é assíncrona e não segura thread
+ * nem conexão JDBC. O /actuator também, para que o scrape de métricas funcione sob carga.
+ *
+ * Respostas assíncronas (a exportação NDJSON, por exemplo) continuam lendo o banco
+ * depois que o filtro retorna; a vaga só é devolvida quando o processamento
+ * assíncrono termina, com erro ou por timeout.
+ */
+@Component
+@ConditionalOnProperty(name = "concurrency.limit.enabled", havingValue = "true")
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private Environment environment;
+
+    // Requisições simultâneas por conexão do pool; 0 em max-concurrent usa esta proporção
+    @Value("${concurrency.limit.per-connection:2}")
+    private int perConnection;
+
+    @Value("${concurrency.limit.max-concurrent:0}")
+    private int maxConcurrent;
+
+    @Value("${concurrency.limit.queue-timeout-ms:2000}")
+    private long queueTimeoutMs;
+
+    @Value("${concurrency.limit.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    private Semaphore permits;
+    private int limit;
+    private final AtomicLong rejected = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        int poolSize = poolSize();
+        limit = maxConcurrent > 0 ? maxConcurrent : Math.max(1, poolSize * perConnection);
+        permits = new Semaphore(limit, true);
+
+        boolean virtualThreads = Threading.VIRTUAL.isActive(environment);
+        if (!virtualThreads && environment.getProperty("spring.threads.virtual.enabled", Boolean.class, false)) {
+            log.warn("spring.threads.virtual.enabled=true, mas o Java {} não tem threads virtuais (requer 21+)",
+                Runtime.version().feature());
+        }
+        log.info("Limite de concorrência: {} requisições (pool JDBC {}), threads virtuais {}",
+            limit, poolSize, virtualThreads ? "ativas" : "inativas");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return isKitchenStream(path) || path.startsWith("/h2-console") || path.startsWith("/actuator");
+    }
+
+    // A vaga foi tomada no dispatch inicial e vale até o fim do processamento assíncrono
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return true;
+    }
+
+    // Feeds SSE da cozinha e das praças: conexões longas que não usam o pool JDBC depois do snapshot
+    private static boolean isKitchenStream(String path) {
+        return "/kitchen/stream".equals(path) || (path.startsWith("/kitchen/stations/") && path.endsWith("/stream"));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+
+        if (!acquired) {
+            rejected.incrementAndGet();
+            response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Servidor ocupado, tente novamente");
+            return;
+        }
+
+        PermitRelease release = new PermitRelease();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(release);
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("limit", limit);
+        stats.put("inUse", limit - permits.availablePermits());
+        stats.put("waiting", permits.getQueueLength());
+        stats.put("rejected", rejected.get());
+        return stats;
+    }
+
+    // Devolve a vaga uma única vez: onError e onTimeout costumam vir seguidos de onComplete
+    private final class PermitRelease implements AsyncListener, Runnable {
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        @Override
+        public void run() {
+            if (released.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            run();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            run();
+        }
+
+        // Um novo startAsync descarta os listeners do ciclo anterior
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
+    private int poolSize() {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.debug("Não foi possível ler o tamanho do pool JDBC", e);
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+}
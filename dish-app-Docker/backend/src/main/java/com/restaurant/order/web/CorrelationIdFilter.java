@@ -0,0 +1,71 @@
+package com.restaurant.order.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Dá a cada requisição um id de correlação que aparece em todas as linhas de log dela.
+ *
+ * Reaproveita o X-Request-Id enviado pelo cliente ou pelo proxy quando ele é curto e só
+ * tem caracteres seguros; senão gera um. O id vai para o MDC (chave correlationId) e
+ * volta no cabeçalho da resposta. Roda antes dos demais filtros para que rejeições
+ * (503, 409 de idempotência) também sejam logadas com o id.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Request-Id";
+    public static final String MDC_KEY = "correlationId";
+
+    private static final int MAX_LENGTH = 64;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String correlationId = accept(request.getHeader(HEADER));
+        if (correlationId == null) {
+            correlationId = generate();
+        }
+
+        MDC.put(MDC_KEY, correlationId);
+        response.setHeader(HEADER, correlationId);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            MDC.remove(MDC_KEY);
+        }
+    }
+
+    // O valor vai parar nos logs: nada de quebras de linha ou cabeçalhos enormes
+    private static String accept(String value) {
+        if (value == null || value.isEmpty() || value.length() > MAX_LENGTH) {
+            return null;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean safe = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '_' || c == '.';
+            if (!safe) {
+                return null;
+            }
+        }
+        return value;
+    }
+
+    // 16 dígitos hexadecimais (o bit alto ligado fixa o tamanho); ThreadLocalRandom evita
+    // a trava do SecureRandom que o UUID.randomUUID usa
+    private static String generate() {
+        return Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE);
+    }
+}
@@ -0,0 +1,217 @@
+package com.restaurant.order.web;
+
+import com.restaurant.order.service.IdempotencyStore;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Set;
+
+/**
+ * Trata o cabeçalho Idempotency-Key em POST /orders e POST /payments.
+ *
+ * A primeira requisição com a chave segue normalmente e a resposta é guardada no
+ * IdempotencyStore; as repetições recebem a mesma resposta sem chegar aos serviços.
+ * A mesma chave com outro corpo responde 422, e uma repetição que chega enquanto a
+ * original ainda está em andamento responde 409. O corpo é lido inteiro para o hash,
+ * então acima de idempotency.max-body-bytes a requisição recebe 413 antes de ser guardada.
+ */
+@Component
+public class IdempotencyKeyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final Set<String> PATHS = Set.of("/orders", "/payments");
+    private static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Value("${idempotency.max-body-bytes:65536}")
+    private int maxBodyBytes;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"POST".equals(request.getMethod())
+            || !PATHS.contains(request.getServletPath())
+            || request.getHeader(HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Idempotency-Key inválido");
+            return;
+        }
+
+        // Content-Length pode faltar (chunked) ou mentir: a leitura também para no limite
+        byte[] body = request.getContentLengthLong() > maxBodyBytes ? null : readBody(request.getInputStream());
+        if (body == null) {
+            response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(), "Corpo acima de " + maxBodyBytes + " bytes");
+            return;
+        }
+        String requestHash = hash(request.getMethod(), request.getServletPath(), body);
+
+        IdempotencyStore.CachedResponse cached = idempotencyStore.find(key);
+        if (cached != null) {
+            replay(cached, requestHash, response);
+            return;
+        }
+
+        if (idempotencyStore.begin(key, requestHash) != null) {
+            response.sendError(HttpStatus.CONFLICT.value(), "Requisição com esta Idempotency-Key ainda em andamento");
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            // Outra thread pode ter concluído a mesma chave entre o find e o begin
+            cached = idempotencyStore.find(key);
+            if (cached != null) {
+                replay(cached, requestHash, response);
+                return;
+            }
+
+            chain.doFilter(new CachedBodyRequest(request, body), wrapper);
+
+            // Erros do servidor não são guardados: a repetição deve tentar de novo
+            if (wrapper.getStatus() < 500) {
+                idempotencyStore.complete(key, requestHash, wrapper.getStatus(), wrapper.getContentType(), wrapper.getContentAsByteArray());
+            }
+        } finally {
+            idempotencyStore.release(key);
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private void replay(IdempotencyStore.CachedResponse cached, String requestHash, HttpServletResponse response) throws IOException {
+        if (!cached.requestHash().equals(requestHash)) {
+            response.sendError(HttpStatus.UNPROCESSABLE_ENTITY.value(), "Idempotency-Key já usada com outra requisição");
+            return;
+        }
+        response.setStatus(cached.statusCode());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (cached.contentType() != null) {
+            response.setContentType(cached.contentType());
+        }
+        if (cached.body() != null) {
+            response.setContentLength(cached.body().length);
+            response.getOutputStream().write(cached.body());
+        }
+    }
+
+    // null se o corpo passa de maxBodyBytes
+    private byte[] readBody(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            if (out.size() + read > maxBodyBytes) {
+                return null;
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static String hash(String method, String path, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((method + " " + path + "\n").getBytes(StandardCharsets.UTF_8));
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    // O corpo já foi lido para calcular o hash; o controller recebe uma cópia em memória
+    private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream source = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public boolean isFinished() {
+                    return source.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                // Leitura não bloqueante: o corpo inteiro já está em memória, então está sempre disponível
+                @Override
+                public void setReadListener(ReadListener readListener) {
+                    try {
+                        if (!isFinished()) {
+                            readListener.onDataAvailable();
+                        }
+                        readListener.onAllDataRead();
+                    } catch (IOException e) {
+                        readListener.onError(e);
+                    }
+                }
+
+                @Override
+                public int read() {
+                    return source.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return source.read(b, off, len);
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+            return new BufferedReader(new InputStreamReader(getInputStream(), Charset.forName(encoding)));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+-- Esquema inicial do order-service. A partir daqui o esquema só muda por novos scripts V<n>__*.sql;
+-- o Hibernate não cria nem altera tabelas (spring.jpa.hibernate.ddl-auto=none).
+-- Cada índice indica as consultas dos repositórios que ele atende.
+
+-- Sequências usadas pelos @SequenceGenerator (allocationSize = 50)
+CREATE SEQUENCE dishes_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE orders_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE order_items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE kitchen_orders_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE kitchen_order_items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE payments_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE outbox_messages_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE dishes (
+    id BIGINT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    description VARCHAR(500),
+    price FLOAT(53) NOT NULL,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE orders (
+    id BIGINT NOT NULL,
+    table_number INTEGER NOT NULL,
+    customer_name VARCHAR(255),
+    customer_phone VARCHAR(255),
+    delivery_address VARCHAR(255),
+    status VARCHAR(32) NOT NULL,
+    total_amount_cents BIGINT NOT NULL,
+    version BIGINT,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+-- findFirstPage, findPageAfter, streamAll, findSummaries
+CREATE INDEX idx_orders_created_at_id ON orders (created_at, id);
+-- findByStatus, findSummariesByStatus, findActiveOrders, findActiveSummaries
+CREATE INDEX idx_orders_status_created_at ON orders (status, created_at, id);
+-- findArchivableIds
+CREATE INDEX idx_orders_status_updated_at ON orders (status, updated_at, id);
+-- findByTableNumber, findActiveOrdersByTable
+CREATE INDEX idx_orders_table_status ON orders (table_number, status);
+
+CREATE TABLE order_items (
+    id BIGINT NOT NULL,
+    order_id BIGINT,
+    dish_id BIGINT NOT NULL,
+    dish_name VARCHAR(255) NOT NULL,
+    quantity INTEGER NOT NULL,
+    unit_price_cents BIGINT NOT NULL,
+    total_price_cents BIGINT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id)
+);
+
+-- Carga dos itens (entity graph e batch fetch por order_id)
+CREATE INDEX idx_order_items_order_id ON order_items (order_id);
+
+CREATE TABLE kitchen_orders (
+    id BIGINT NOT NULL,
+    order_id BIGINT NOT NULL,
+    table_number INTEGER NOT NULL,
+    customer_name VARCHAR(255),
+    customer_phone VARCHAR(255),
+    delivery_address VARCHAR(255),
+    status VARCHAR(32) NOT NULL,
+    total_amount_cents BIGINT NOT NULL,
+    estimated_time INTEGER,
+    priority INTEGER,
+    notes VARCHAR(255),
+    version BIGINT,
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    started_at TIMESTAMP(6),
+    ready_at TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+-- findByOrderId: uma comanda por pedido
+CREATE UNIQUE INDEX ux_kitchen_orders_order_id ON kitchen_orders (order_id);
+-- findOrdersByDateRange e variantes paginadas, findFirstPage, findPageAfter, streamAll
+CREATE INDEX idx_kitchen_orders_created_at_id ON kitchen_orders (created_at, id);
+-- findActiveKitchenOrders, findNewOrders
+CREATE INDEX idx_kitchen_orders_status_priority ON kitchen_orders (status, priority, created_at);
+-- findByStatus, countByStatus, findSummariesByStatus
+CREATE INDEX idx_kitchen_orders_status_created_at ON kitchen_orders (status, created_at, id);
+-- findPreparingOrders
+CREATE INDEX idx_kitchen_orders_status_started_at ON kitchen_orders (status, started_at);
+-- findReadyOrders
+CREATE INDEX idx_kitchen_orders_status_ready_at ON kitchen_orders (status, ready_at);
+-- findRecentlyDeliveredOrders, findArchivableIds
+CREATE INDEX idx_kitchen_orders_status_updated_at ON kitchen_orders (status, updated_at, id);
+-- findByTableNumber, findActiveOrdersByTable
+CREATE INDEX idx_kitchen_orders_table_status ON kitchen_orders (table_number, status);
+-- findByPriority
+CREATE INDEX idx_kitchen_orders_priority ON kitchen_orders (priority, created_at);
+
+CREATE TABLE kitchen_order_items (
+    id BIGINT NOT NULL,
+    kitchen_order_id BIGINT,
+    dish_id BIGINT NOT NULL,
+    dish_name VARCHAR(255) NOT NULL,
+    dish_description VARCHAR(255),
+    quantity INTEGER NOT NULL,
+    unit_price_cents BIGINT NOT NULL,
+    total_price_cents BIGINT NOT NULL,
+    preparation_status VARCHAR(32) NOT NULL,
+    preparation_notes VARCHAR(255),
+    estimated_prep_time INTEGER,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_kitchen_order_items_kitchen_order FOREIGN KEY (kitchen_order_id) REFERENCES kitchen_orders (id)
+);
+
+CREATE INDEX idx_kitchen_order_items_kitchen_order_id ON kitchen_order_items (kitchen_order_id);
+
+CREATE TABLE payments (
+    id BIGINT NOT NULL,
+    order_id BIGINT NOT NULL,
+    amount_cents BIGINT NOT NULL,
+    payment_method VARCHAR(32) NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    transaction_id VARCHAR(255),
+    card_last_four VARCHAR(255),
+    cash_received_cents BIGINT,
+    change_amount_cents BIGINT,
+    notes VARCHAR(255),
+    processed_by VARCHAR(255),
+    version BIGINT,
+    created_at TIMESTAMP(6),
+    processed_at TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+-- findFirstPage, findPageAfter, streamAll
+CREATE INDEX idx_payments_created_at_id ON payments (created_at, id);
+-- findByOrderId, findCompletedPaymentsByOrderId
+CREATE INDEX idx_payments_order_status ON payments (order_id, status);
+-- findByStatus, getTotalRevenueCentsByDateRange, getRevenueCentsByPaymentMethod, countCompletedPaymentsByDateRange
+CREATE INDEX idx_payments_status_created_at ON payments (status, created_at);
+-- findByPaymentMethod
+CREATE INDEX idx_payments_method ON payments (payment_method);
+-- findByProcessedBy
+CREATE INDEX idx_payments_processed_by ON payments (processed_by, processed_at);
+
+CREATE TABLE outbox_messages (
+    id BIGINT NOT NULL,
+    event_type VARCHAR(64) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    payload VARCHAR(255) NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    attempts INTEGER NOT NULL,
+    last_error VARCHAR(500),
+    created_at TIMESTAMP(6) NOT NULL,
+    next_attempt_at TIMESTAMP(6) NOT NULL,
+    processed_at TIMESTAMP(6),
+    PRIMARY KEY (id)
+);
+
+-- findDispatchableIds
+CREATE INDEX idx_outbox_status_next_attempt ON outbox_messages (status, next_attempt_at, id);
+-- deleteProcessedBefore
+CREATE INDEX idx_outbox_status_processed_at ON outbox_messages (status, processed_at);
+
+CREATE TABLE idempotency_records (
+    idempotency_key VARCHAR(255) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    status_code INTEGER NOT NULL,
+    content_type VARCHAR(255),
+    response_body BLOB,
+    created_at TIMESTAMP(6) NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (idempotency_key)
+);
+
+-- deleteExpired
+CREATE INDEX idx_idempotency_expires_at ON idempotency_records (expires_at);
+
+CREATE TABLE orders_history (
+    id BIGINT NOT NULL,
+    table_number INTEGER NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    total_amount_cents BIGINT NOT NULL,
+    created_at TIMESTAMP(6),
+    closed_at TIMESTAMP(6),
+    archived_at TIMESTAMP(6) NOT NULL,
+    payload CLOB NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_orders_history_created_at_id ON orders_history (created_at, id);
+
+CREATE TABLE kitchen_orders_history (
+    id BIGINT NOT NULL,
+    order_id BIGINT NOT NULL,
+    table_number INTEGER NOT NULL,
+    status VARCHAR(32) NOT NULL,
+    total_amount_cents BIGINT NOT NULL,
+    created_at TIMESTAMP(6),
+    closed_at TIMESTAMP(6),
+    archived_at TIMESTAMP(6) NOT NULL,
+    payload CLOB NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_kitchen_orders_history_order_id ON kitchen_orders_history (order_id);
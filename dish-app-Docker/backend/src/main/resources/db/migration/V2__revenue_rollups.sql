@@ -0,0 +1,18 @@
+-- Faturamento pré-agregado por hora (created_at), método e operador; mantido pelo RevenueRollupService
+-- na mesma transação que conclui, estorna ou exclui o pagamento.
+CREATE TABLE revenue_rollups (
+    bucket_start TIMESTAMP(6) NOT NULL,
+    payment_method VARCHAR(32) NOT NULL,
+    processed_by VARCHAR(255) NOT NULL,
+    total_cents BIGINT NOT NULL,
+    payment_count BIGINT NOT NULL,
+    -- summarizeBuckets: faixa de horas pelo prefixo da chave
+    PRIMARY KEY (bucket_start, payment_method, processed_by)
+);
+
+-- Pagamentos concluídos antes desta versão
+INSERT INTO revenue_rollups (bucket_start, payment_method, processed_by, total_cents, payment_count)
+SELECT DATE_TRUNC('HOUR', created_at), payment_method, COALESCE(processed_by, ''), SUM(amount_cents), COUNT(*)
+FROM payments
+WHERE status = 'COMPLETED' AND created_at IS NOT NULL
+GROUP BY DATE_TRUNC('HOUR', created_at), payment_method, COALESCE(processed_by, '');
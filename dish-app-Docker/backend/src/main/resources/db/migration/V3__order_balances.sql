@@ -0,0 +1,31 @@
+-- Saldo por pedido: devido (total do pedido) e pago (pagamentos COMPLETED), atualizados por
+-- UPDATE incremental na mesma transação do pedido ou do pagamento. Lido só pela chave primária.
+CREATE TABLE order_balances (
+    order_id BIGINT NOT NULL,
+    due_cents BIGINT NOT NULL,
+    paid_cents BIGINT NOT NULL,
+    payment_count INTEGER NOT NULL,
+    updated_at TIMESTAMP(6),
+    PRIMARY KEY (order_id)
+);
+
+-- Pedidos e pagamentos existentes antes desta versão
+INSERT INTO order_balances (order_id, due_cents, paid_cents, payment_count, updated_at)
+SELECT o.id, o.total_amount_cents, COALESCE(p.paid_cents, 0), COALESCE(p.payment_count, 0), CURRENT_TIMESTAMP
+FROM orders o
+LEFT JOIN (
+    SELECT order_id, SUM(amount_cents) AS paid_cents, COUNT(*) AS payment_count
+    FROM payments
+    WHERE status = 'COMPLETED'
+    GROUP BY order_id
+) p ON p.order_id = o.id;
+
+INSERT INTO order_balances (order_id, due_cents, paid_cents, payment_count, updated_at)
+SELECT h.id, h.total_amount_cents, COALESCE(p.paid_cents, 0), COALESCE(p.payment_count, 0), CURRENT_TIMESTAMP
+FROM orders_history h
+LEFT JOIN (
+    SELECT order_id, SUM(amount_cents) AS paid_cents, COUNT(*) AS payment_count
+    FROM payments
+    WHERE status = 'COMPLETED'
+    GROUP BY order_id
+) p ON p.order_id = h.id;
@@ -0,0 +1,8 @@
+-- Instantes de entrega e cancelamento da comanda, gravados pelo KitchenOrder.setStatus junto
+-- com started_at e ready_at. Comandas já encerradas recebem o updated_at, que é o instante
+-- da última mudança (a de status, para comandas terminais).
+ALTER TABLE kitchen_orders ADD COLUMN delivered_at TIMESTAMP(6);
+ALTER TABLE kitchen_orders ADD COLUMN cancelled_at TIMESTAMP(6);
+
+UPDATE kitchen_orders SET delivered_at = updated_at WHERE status = 'DELIVERED';
+UPDATE kitchen_orders SET cancelled_at = updated_at WHERE status = 'CANCELLED';
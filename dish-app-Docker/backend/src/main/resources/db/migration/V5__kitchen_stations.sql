@@ -0,0 +1,14 @@
+-- Praça de preparo (GRILL, FRYER, SALAD, BAR). O prato define a praça; o item da comanda guarda
+-- uma cópia no momento em que entra na cozinha, como já faz com o nome do prato, para que o
+-- roteamento não dependa do cardápio. Prato sem praça vai para kitchen.stations.default.
+ALTER TABLE dishes ADD COLUMN station VARCHAR(16);
+ALTER TABLE kitchen_order_items ADD COLUMN station VARCHAR(16);
+
+UPDATE dishes SET station = 'GRILL' WHERE name IN ('Pizza Margherita', 'Hambúrguer Clássico');
+UPDATE dishes SET station = 'SALAD' WHERE name = 'Salada Caesar';
+UPDATE dishes SET station = 'FRYER' WHERE name = 'Batata Frita';
+UPDATE dishes SET station = 'BAR' WHERE name = 'Refrigerante';
+
+UPDATE kitchen_order_items SET station = (SELECT d.station FROM dishes d WHERE d.id = kitchen_order_items.dish_id)
+WHERE station IS NULL;
+
@@ -0,0 +1,11 @@
+-- O saldo do pedido arquivado passa a viver no histórico, ao lado do total que ele deve;
+-- order_balances fica só com os pedidos da tabela quente. Estornos de pedidos já
+-- arquivados atualizam estas colunas.
+ALTER TABLE orders_history ADD COLUMN paid_cents BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE orders_history ADD COLUMN payment_count INTEGER DEFAULT 0 NOT NULL;
+
+UPDATE orders_history SET
+    paid_cents = COALESCE((SELECT b.paid_cents FROM order_balances b WHERE b.order_id = orders_history.id), 0),
+    payment_count = COALESCE((SELECT b.payment_count FROM order_balances b WHERE b.order_id = orders_history.id), 0);
+
+DELETE FROM order_balances WHERE order_id IN (SELECT id FROM orders_history);
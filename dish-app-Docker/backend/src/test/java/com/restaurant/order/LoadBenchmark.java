@@ -0,0 +1,243 @@
+package com.restaurant.order;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara o modo padrão (threads de plataforma) com o perfil virtual-threads sob carga.
+ *
+ * Sobe a aplicação uma vez em cada modo, abre telas SSE da cozinha e coloca muitos
+ * "garçons" simultâneos criando pedidos, adicionando itens e consultando mesas e cozinha.
+ * Não roda no mvn test normal (o nome não termina em Test):
+ *
+ *   mvn test -Dtest=LoadBenchmark -Dload.clients=1000 -Dload.duration-seconds=30 -Dload.sse-listeners=300
+ *
+ * O modo virtual-threads só é medido em Java 21+. O gerador de carga roda na mesma JVM
+ * do servidor, então os números servem para comparar os modos, não como capacidade absoluta.
+ */
+class LoadBenchmark {
+
+    private static final int CLIENTS = Integer.getInteger("load.clients", 1000);
+    private static final int WARMUP_SECONDS = Integer.getInteger("load.warmup-seconds", 5);
+    private static final int DURATION_SECONDS = Integer.getInteger("load.duration-seconds", 20);
+    private static final int SSE_LISTENERS = Integer.getInteger("load.sse-listeners", 200);
+    private static final int TABLES = 60;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void compareThreadingModes() throws Exception {
+        List<Result> results = new ArrayList<>();
+        results.add(run("platform"));
+        if (Runtime.version().feature() >= 21) {
+            results.add(run("virtual-threads"));
+        } else {
+            System.out.println("Java " + Runtime.version().feature() + ": modo virtual-threads ignorado (requer 21+)");
+        }
+
+        System.out.printf("%nLoadBenchmark: %d clientes, %d telas SSE, %ds medidos%n", CLIENTS, SSE_LISTENERS, DURATION_SECONDS);
+        System.out.printf("%-16s %10s %10s %10s %10s %10s %10s %8s %8s%n",
+            "modo", "req/s", "ok", "p50 ms", "p95 ms", "p99 ms", "max ms", "503", "erros");
+        for (Result result : results) {
+            System.out.printf("%-16s %10.1f %10d %10.1f %10.1f %10.1f %10.1f %8d %8d%n",
+                result.mode(), result.throughput(), result.ok(), result.p50(), result.p95(), result.p99(), result.max(),
+                result.rejected(), result.errors());
+        }
+
+        results.forEach(result -> assertTrue(result.ok() > 0, result.mode() + ": nenhuma requisição concluída"));
+    }
+
+    private Result run(String mode) throws Exception {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(OrderApplication.class)
+            .properties(
+                "server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:load-" + mode,
+                "spring.jpa.show-sql=false",
+                "logging.level.root=WARN",
+                "archive.enabled=false");
+        if (!"platform".equals(mode)) {
+            builder.profiles(mode);
+        }
+
+        try (ConfigurableApplicationContext context = builder.run()) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            return new LoadRun(mode, baseUrl).execute();
+        }
+    }
+
+    private class LoadRun {
+
+        private final String mode;
+        private final String baseUrl;
+        private final HttpClient client;
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong errors = new AtomicLong();
+        private JsonNode dish;
+        private volatile long measureFrom;
+        private volatile long measureUntil;
+
+        LoadRun(String mode, String baseUrl) {
+            this.mode = mode;
+            this.baseUrl = baseUrl;
+            this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        }
+
+        Result execute() throws Exception {
+            dish = objectMapper.readTree(get("/dishes").body()).get(0);
+
+            List<CompletableFuture<HttpResponse<Void>>> listeners = new ArrayList<>();
+            for (int i = 0; i < SSE_LISTENERS; i++) {
+                listeners.add(client.sendAsync(request("/kitchen/stream").build(), HttpResponse.BodyHandlers.discarding()));
+            }
+
+            long start = System.nanoTime();
+            measureFrom = start + TimeUnit.SECONDS.toNanos(WARMUP_SECONDS);
+            measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+
+            ExecutorService waiters = Executors.newFixedThreadPool(CLIENTS);
+            List<CompletableFuture<long[]>> samples = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++) {
+                samples.add(CompletableFuture.supplyAsync(this::waiterLoop, waiters));
+            }
+
+            long[] latencies = samples.stream()
+                .map(CompletableFuture::join)
+                .flatMapToLong(Arrays::stream)
+                .sorted()
+                .toArray();
+            waiters.shutdownNow();
+            listeners.forEach(listener -> listener.cancel(true));
+
+            return Result.of(mode, latencies, DURATION_SECONDS, rejected.get(), errors.get());
+        }
+
+        // Um garçom: abre um pedido, adiciona itens, confere o pedido, a mesa e a cozinha
+        private long[] waiterLoop() {
+            LatencyBuffer buffer = new LatencyBuffer();
+            while (System.nanoTime() < measureUntil) {
+                int table = ThreadLocalRandom.current().nextInt(1, TABLES + 1);
+                String order = "{\"tableNumber\":" + table + ",\"customerName\":\"Mesa " + table + "\",\"status\":\"NEW\",\"items\":[" + item() + "]}";
+                HttpResponse<String> created = timed(buffer, () -> post("/orders", order));
+                if (created == null || created.statusCode() != 200) {
+                    continue;
+                }
+
+                long orderId = readId(created.body());
+                timed(buffer, () -> post("/orders/" + orderId + "/items", item()));
+                timed(buffer, () -> get("/orders/" + orderId));
+                timed(buffer, () -> get("/tables/status"));
+                timed(buffer, () -> get("/kitchen/orders/active"));
+            }
+            return buffer.toArray();
+        }
+
+        private HttpResponse<String> timed(LatencyBuffer buffer, Call call) {
+            long begin = System.nanoTime();
+            try {
+                HttpResponse<String> response = call.execute();
+                long end = System.nanoTime();
+                if (response.statusCode() == 503) {
+                    rejected.incrementAndGet();
+                } else if (response.statusCode() >= 400) {
+                    errors.incrementAndGet();
+                } else if (begin >= measureFrom && end <= measureUntil) {
+                    buffer.add(end - begin);
+                }
+                return response;
+            } catch (Exception e) {
+                errors.incrementAndGet();
+                return null;
+            }
+        }
+
+        private String item() {
+            return "{\"dishId\":" + dish.get("id").asLong() + ",\"dishName\":" + dish.get("name").toString()
+                + ",\"quantity\":1,\"unitPrice\":" + dish.get("price").asText() + "}";
+        }
+
+        private long readId(String body) {
+            try {
+                return objectMapper.readTree(body).get("id").asLong();
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private HttpResponse<String> get(String path) throws Exception {
+            return client.send(request(path).GET().build(), HttpResponse.BodyHandlers.ofString());
+        }
+
+        private HttpResponse<String> post(String path, String json) throws Exception {
+            return client.send(request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        }
+
+        private HttpRequest.Builder request(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+        }
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        HttpResponse<String> execute() throws Exception;
+    }
+
+    private static class LatencyBuffer {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+
+    private record Result(String mode, long ok, double throughput, double p50, double p95, double p99, double max,
+                          long rejected, long errors) {
+
+        static Result of(String mode, long[] sortedNanos, int seconds, long rejected, long errors) {
+            return new Result(mode, sortedNanos.length, sortedNanos.length / (double) seconds,
+                percentile(sortedNanos, 0.50), percentile(sortedNanos, 0.95), percentile(sortedNanos, 0.99),
+                percentile(sortedNanos, 1.0), rejected, errors);
+        }
+
+        private static double percentile(long[] sortedNanos, double quantile) {
+            if (sortedNanos.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(quantile * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.restaurant.order.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Os totais correntes são conferidos contra o recálculo completo a cada mutação (assert com -ea, ativo no surefire)
+class OrderTotalsTest {
+
+    @Test
+    void keepsRunningTotalsAcrossItemMutations() {
+        Order order = new Order(1, "Cliente", OrderStatus.NEW);
+        OrderItem burger = new OrderItem(1L, "Hambúrguer", 2, Money.of("25.90"));
+        OrderItem soda = new OrderItem(2L, "Refrigerante", 1, Money.of("6.50"));
+
+        order.addItem(burger);
+        order.addItem(soda);
+        assertEquals(Money.of("58.30"), order.getTotalAmount());
+        assertEquals(3, order.getItemCount());
+
+        burger.setQuantity(3);
+        soda.setUnitPrice(Money.of("7.00"));
+        assertEquals(Money.of("84.70"), order.getTotalAmount());
+        assertEquals(3, order.getQuantityOfDish(1L));
+
+        assertTrue(order.removeItem(soda));
+        assertEquals(Money.of("77.70"), order.getTotalAmount());
+        assertEquals(0, order.getQuantityOfDish(2L));
+
+        OrderItem extraBurger = new OrderItem(1L, "Hambúrguer", 1, Money.of("25.90"));
+        order.setItems(List.of(burger, extraBurger));
+        assertEquals(Money.of("103.60"), order.getTotalAmount());
+        assertEquals(4, order.getQuantityOfDish(1L));
+    }
+
+    @Test
+    void kitchenOrderTracksItemChanges() {
+        KitchenOrder kitchenOrder = new KitchenOrder(10L, 4, "Cliente", OrderStatus.PREPARING);
+        KitchenOrderItem pizza = new KitchenOrderItem(5L, "Pizza", null, 1, Money.of("49.90"), 20);
+
+        kitchenOrder.addItem(pizza);
+        pizza.setQuantity(2);
+        assertEquals(Money.of("99.80"), kitchenOrder.getTotalAmount());
+        assertEquals(2, kitchenOrder.getItemCount());
+
+        kitchenOrder.removeItem(pizza);
+        assertEquals(Money.ZERO, kitchenOrder.getTotalAmount());
+        assertEquals(0, kitchenOrder.getItemCount());
+    }
+}
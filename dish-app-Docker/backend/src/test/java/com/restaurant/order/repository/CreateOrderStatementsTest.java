@@ -0,0 +1,86 @@
+package com.restaurant.order.repository;
+
+import com.restaurant.order.model.Money;
+import com.restaurant.order.model.Order;
+import com.restaurant.order.model.OrderItem;
+import com.restaurant.order.model.OrderStatus;
+import com.restaurant.order.service.OrderService;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SQL preparado pelo Hibernate ao criar um pedido de 15 itens, e a latência do createOrder.
+ *
+ * Com ids de sequência em pool (allocationSize 50) e hibernate.jdbc.batch_size, os 15
+ * INSERTs de order_items saem num único statement em lote e a sequência só é consultada
+ * quando o bloco de 50 ids acaba. Com IDENTITY o Hibernate desliga o lote e executa um
+ * INSERT por linha para ler o id gerado (16 idas ao banco por pedido).
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.restaurant.order.repository.RecordingStatementInspector",
+    "spring.jpa.show-sql=false"
+})
+class CreateOrderStatementsTest {
+
+    private static final Logger log = LoggerFactory.getLogger(CreateOrderStatementsTest.class);
+
+    private static final int ITEMS = 15;
+    private static final int WARMUP = 5;
+    private static final int RUNS = 20;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Test
+    void itemInsertsAreBatched() {
+        for (int i = 0; i < WARMUP; i++) {
+            orderService.createOrder(newOrder());
+        }
+
+        long elapsedNanos = 0;
+        int sequenceCalls = 0;
+        for (int i = 0; i < RUNS; i++) {
+            RecordingStatementInspector.drain();
+            long start = System.nanoTime();
+            orderService.createOrder(newOrder());
+            elapsedNanos += System.nanoTime() - start;
+            List<String> statements = RecordingStatementInspector.drain();
+
+            assertEquals(1, count(statements, "insert into orders"), "INSERT de orders por pedido");
+            assertEquals(1, count(statements, "insert into order_items"), "INSERTs de order_items deveriam sair em lote");
+            sequenceCalls += count(statements, "next value for orders_seq") + count(statements, "next value for order_items_seq");
+        }
+
+        // 1 id de pedido e 15 de itens por execução; cada ida à sequência reserva 50
+        assertTrue(sequenceCalls <= 2 * RUNS * (ITEMS + 1) / 50 + 2, "Consultas à sequência: " + sequenceCalls);
+        log.debug("createOrder com {} itens: {} us em média, {} consultas à sequência em {} pedidos",
+            ITEMS, elapsedNanos / RUNS / 1_000, sequenceCalls, RUNS);
+    }
+
+    private static Order newOrder() {
+        Order order = new Order(15, "Mesa 15", OrderStatus.NEW);
+        for (int i = 0; i < ITEMS; i++) {
+            order.addItem(new OrderItem(100L + i, "Prato " + i, 1, Money.of("10.00")));
+        }
+        return order;
+    }
+
+    private static int count(List<String> statements, String prefix) {
+        int count = 0;
+        for (String sql : statements) {
+            if (sql.toLowerCase(Locale.ROOT).contains(prefix)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
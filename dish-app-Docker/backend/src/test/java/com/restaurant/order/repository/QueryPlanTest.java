@@ -0,0 +1,165 @@
+package com.restaurant.order.repository;
+
+import com.restaurant.order.model.OrderStatus;
+import com.restaurant.order.model.Payment.PaymentMethod;
+import com.restaurant.order.model.Payment.PaymentStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Roda EXPLAIN (H2) sobre o SQL real de cada consulta filtrada dos repositórios e
+ * falha se alguma tabela for lida por varredura completa. As listagens completas
+ * (findAll, findFirstPage, findFirstKeys, streamAll, findSummaries) ficam de fora: ler a tabela
+ * inteira é o objetivo delas.
+ */
+@SpringBootTest(properties = {
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.restaurant.order.repository.RecordingStatementInspector",
+    "spring.jpa.show-sql=false"
+})
+@Transactional
+class QueryPlanTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.now();
+    private static final PageRequest PAGE = PageRequest.of(0, 10);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private KitchenOrderRepository kitchenOrderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private RevenueRollupRepository revenueRollupRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void orderQueriesUseIndexes() {
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findWithItemsById", () -> orderRepository.findWithItemsById(1L));
+        queries.put("findByTableNumber", () -> orderRepository.findByTableNumber(1));
+        queries.put("findByStatus", () -> orderRepository.findByStatus(OrderStatus.NEW));
+        queries.put("findSummariesByStatus", () -> orderRepository.findSummariesByStatus(OrderStatus.NEW));
+        queries.put("findActiveOrders", () -> orderRepository.findActiveOrders());
+        queries.put("findActiveSummaries", () -> orderRepository.findActiveSummaries());
+        queries.put("findActiveOrdersByTable", () -> orderRepository.findActiveOrdersByTable(1));
+        queries.put("findArchivableIds", () -> orderRepository.findArchivableIds(NOW, PAGE));
+        queries.put("findByIdIn", () -> orderRepository.findByIdIn(List.of(1L, 2L)));
+        queries.put("findPageAfter", () -> orderRepository.findPageAfter(NOW, 100L, PAGE));
+        queries.put("findKeysAfter", () -> orderRepository.findKeysAfter(NOW, 100L, PAGE));
+        assertNoTableScans(queries);
+    }
+
+    @Test
+    void kitchenOrderQueriesUseIndexes() {
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findWithItemsById", () -> kitchenOrderRepository.findWithItemsById(1L));
+        queries.put("findByStatus", () -> kitchenOrderRepository.findByStatus(OrderStatus.NEW));
+        queries.put("findByTableNumber", () -> kitchenOrderRepository.findByTableNumber(1));
+        queries.put("findByOrderId", () -> kitchenOrderRepository.findByOrderId(1L));
+        queries.put("findActiveKitchenOrders", () -> kitchenOrderRepository.findActiveKitchenOrders());
+        queries.put("findNewOrders", () -> kitchenOrderRepository.findNewOrders());
+        queries.put("findPreparingOrders", () -> kitchenOrderRepository.findPreparingOrders());
+        queries.put("findReadyOrders", () -> kitchenOrderRepository.findReadyOrders());
+        queries.put("findRecentlyDeliveredOrders", () -> kitchenOrderRepository.findRecentlyDeliveredOrders(NOW.minusHours(1)));
+        queries.put("findByPriority", () -> kitchenOrderRepository.findByPriority(2));
+        queries.put("findSummariesByStatus", () -> kitchenOrderRepository.findSummariesByStatus(OrderStatus.READY));
+        queries.put("countByStatus", () -> kitchenOrderRepository.countByStatus(OrderStatus.NEW));
+        queries.put("findPrepTimes", () -> kitchenOrderRepository.findPrepTimes(NOW.minusDays(1), NOW));
+        queries.put("findOrdersByDateRange", () -> kitchenOrderRepository.findOrdersByDateRange(NOW.minusDays(1), NOW));
+        queries.put("findActiveOrdersByTable", () -> kitchenOrderRepository.findActiveOrdersByTable(1));
+        queries.put("findArchivableIds", () -> kitchenOrderRepository.findArchivableIds(NOW, PAGE));
+        queries.put("findPageAfter", () -> kitchenOrderRepository.findPageAfter(NOW, 100L, PAGE));
+        queries.put("findDateRangeFirstPage", () -> kitchenOrderRepository.findDateRangeFirstPage(NOW.minusDays(1), NOW, PAGE));
+        queries.put("findDateRangePageAfter", () -> kitchenOrderRepository.findDateRangePageAfter(NOW.minusDays(1), NOW, NOW, 100L, PAGE));
+        queries.put("findKeysAfter", () -> kitchenOrderRepository.findKeysAfter(NOW, 100L, PAGE));
+        queries.put("findDateRangeFirstKeys", () -> kitchenOrderRepository.findDateRangeFirstKeys(NOW.minusDays(1), NOW, PAGE));
+        queries.put("findDateRangeKeysAfter", () -> kitchenOrderRepository.findDateRangeKeysAfter(NOW.minusDays(1), NOW, NOW, 100L, PAGE));
+        assertNoTableScans(queries);
+    }
+
+    @Test
+    void paymentQueriesUseIndexes() {
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findByOrderId", () -> paymentRepository.findByOrderId(1L));
+        queries.put("findByStatus", () -> paymentRepository.findByStatus(PaymentStatus.COMPLETED));
+        queries.put("findByPaymentMethod", () -> paymentRepository.findByPaymentMethod(PaymentMethod.PIX));
+        queries.put("findCompletedPaymentsByOrderId", () -> paymentRepository.findCompletedPaymentsByOrderId(1L));
+        queries.put("getTotalRevenueCentsByDateRange", () -> paymentRepository.getTotalRevenueCentsByDateRange(NOW.minusDays(1), NOW));
+        queries.put("getRevenueCentsByPaymentMethod", () -> paymentRepository.getRevenueCentsByPaymentMethod(NOW.minusDays(1), NOW));
+        queries.put("countCompletedPaymentsByDateRange", () -> paymentRepository.countCompletedPaymentsByDateRange(NOW.minusDays(1), NOW));
+        queries.put("findByProcessedBy", () -> paymentRepository.findByProcessedBy("caixa"));
+        queries.put("findPageAfter", () -> paymentRepository.findPageAfter(NOW, 100L, PAGE));
+        queries.put("summarizeCompletedBefore", () -> paymentRepository.summarizeCompletedBefore(NOW.minusHours(1), NOW));
+        queries.put("summarizeCompletedThrough", () -> paymentRepository.summarizeCompletedThrough(NOW.minusHours(1), NOW));
+        assertNoTableScans(queries);
+    }
+
+    @Test
+    void maintenanceQueriesUseIndexes() {
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+        queries.put("findDispatchableIds", () -> outboxMessageRepository.findDispatchableIds(NOW, PAGE));
+        queries.put("deleteProcessedBefore", () -> outboxMessageRepository.deleteProcessedBefore(NOW));
+        queries.put("deleteExpired", () -> idempotencyRecordRepository.deleteExpired(NOW));
+        queries.put("summarizeBuckets", () -> revenueRollupRepository.summarizeBuckets(NOW.minusDays(30), NOW));
+        queries.put("increment", () -> revenueRollupRepository.increment(NOW, PaymentMethod.PIX, "caixa", 100L, 1L));
+        assertNoTableScans(queries);
+    }
+
+    private void assertNoTableScans(Map<String, Runnable> queries) {
+        List<String> failures = new ArrayList<>();
+        queries.forEach((name, query) -> {
+            RecordingStatementInspector.drain();
+            query.run();
+            List<String> statements = RecordingStatementInspector.drain();
+            assertFalse(statements.isEmpty(), name + " não gerou SQL");
+            for (String sql : statements) {
+                String plan = explain(sql);
+                if (plan.contains(".tableScan")) {
+                    failures.add(name + ":\n" + plan);
+                }
+            }
+        });
+        assertTrue(failures.isEmpty(), "Consultas com varredura completa:\n" + String.join("\n\n", failures));
+    }
+
+    private String explain(String sql) {
+        int parameters = (int) sql.chars().filter(c -> c == '?').count();
+        // O plano é montado na preparação; os valores dos parâmetros não mudam o índice escolhido
+        return jdbcTemplate.query("EXPLAIN " + sql, ps -> {
+            for (int i = 1; i <= parameters; i++) {
+                ps.setNull(i, Types.NULL);
+            }
+        }, rs -> {
+            StringBuilder plan = new StringBuilder();
+            while (rs.next()) {
+                plan.append(rs.getString(1));
+            }
+            return plan.toString();
+        });
+    }
+}
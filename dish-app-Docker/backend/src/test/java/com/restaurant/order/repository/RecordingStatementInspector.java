@@ -0,0 +1,25 @@
+package com.restaurant.order.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Guarda o SQL gerado pelo Hibernate para o QueryPlanTest rodar EXPLAIN sobre ele
+public class RecordingStatementInspector implements StatementInspector {
+
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    static List<String> drain() {
+        List<String> captured = new ArrayList<>(statements);
+        statements.clear();
+        return captured;
+    }
+}
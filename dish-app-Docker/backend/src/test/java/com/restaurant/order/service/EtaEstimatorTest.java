@@ -0,0 +1,59 @@
+package com.restaurant.order.service;
+
+import com.restaurant.order.model.KitchenOrder;
+import com.restaurant.order.model.Money;
+import com.restaurant.order.model.Order;
+import com.restaurant.order.model.OrderItem;
+import com.restaurant.order.model.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Previsão na abertura do pedido e na comanda, e recálculo quando a comanda da frente fica pronta
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class EtaEstimatorTest {
+
+    // Prato sem histórico no contexto compartilhado: outros testes marcam pizzas prontas na hora, o que
+    // zera a média do prato 1; este cai em eta.default-prep-minutes
+    private static final long DISH_ID = 9_001L;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private KitchenService kitchenService;
+
+    @Test
+    void queueAheadDelaysLaterOrders() {
+        Order first = createOrder(31);
+        assertNotNull(first.getEstimatedReadyMinutes());
+        assertTrue(first.getEstimatedReadyMinutes() > 0);
+
+        KitchenOrder firstTicket = sendToKitchen(first.getId());
+        KitchenOrder secondTicket = sendToKitchen(createOrder(32).getId());
+        assertNotNull(firstTicket.getEstimatedTime());
+        assertTrue(secondTicket.getEstimatedTime() >= firstTicket.getEstimatedTime());
+
+        int before = kitchenService.getRemainingMinutes(secondTicket.getId()).orElseThrow();
+        kitchenService.markOrderAsReady(firstTicket.getId());
+
+        assertEquals(0, kitchenService.getRemainingMinutes(firstTicket.getId()).orElseThrow());
+        assertTrue(kitchenService.getRemainingMinutes(secondTicket.getId()).orElseThrow() <= before);
+        assertTrue(orderService.getEstimatedReadyMinutes(secondTicket.getOrderId()).isPresent());
+    }
+
+    private Order createOrder(int table) {
+        Order order = new Order(table, "Mesa " + table, OrderStatus.NEW);
+        order.addItem(new OrderItem(DISH_ID, "Prato do dia", 1, Money.of("30.00")));
+        return orderService.createOrder(order);
+    }
+
+    private KitchenOrder sendToKitchen(Long orderId) {
+        orderService.updateOrderStatus(orderId, OrderStatus.PREPARING);
+        return kitchenService.getKitchenOrderByOrderId(orderId).orElseThrow();
+    }
+}
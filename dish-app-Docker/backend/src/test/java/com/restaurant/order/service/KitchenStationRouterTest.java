@@ -0,0 +1,75 @@
+package com.restaurant.order.service;
+
+import com.restaurant.order.dto.StationItem;
+import com.restaurant.order.model.Dish;
+import com.restaurant.order.model.KitchenOrder;
+import com.restaurant.order.model.KitchenOrderItem;
+import com.restaurant.order.model.Money;
+import com.restaurant.order.model.Order;
+import com.restaurant.order.model.OrderItem;
+import com.restaurant.order.model.OrderStatus;
+import com.restaurant.order.model.Station;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Cada item da comanda entra na fila da praça do prato e sai quando fica pronto
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class KitchenStationRouterTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private KitchenService kitchenService;
+
+    @Autowired
+    private DishService dishService;
+
+    @Test
+    void itemsAreRoutedToTheirDishStation() {
+        Dish burger = dish("Hambúrguer Clássico");
+        Dish fries = dish("Batata Frita");
+
+        Order order = new Order(41, "Mesa 41", OrderStatus.NEW);
+        order.addItem(new OrderItem(burger.getId(), burger.getName(), 1, Money.of("18.50")));
+        order.addItem(new OrderItem(fries.getId(), fries.getName(), 2, Money.of("8.90")));
+        Long orderId = orderService.createOrder(order).getId();
+        orderService.updateOrderStatus(orderId, OrderStatus.PREPARING);
+        KitchenOrder kitchenOrder = kitchenService.getKitchenOrderByOrderId(orderId).orElseThrow();
+
+        List<StationItem> grill = itemsOf(kitchenOrder, Station.GRILL);
+        List<StationItem> fryer = itemsOf(kitchenOrder, Station.FRYER);
+        assertEquals(1, grill.size());
+        assertEquals(burger.getId(), grill.get(0).dishId());
+        assertEquals(1, fryer.size());
+        assertEquals(2, fryer.get(0).quantity());
+        assertTrue(itemsOf(kitchenOrder, Station.BAR).isEmpty());
+
+        kitchenService.updateItemPreparationStatus(kitchenOrder.getId(), fryer.get(0).itemId(), KitchenOrderItem.PreparationStatus.READY);
+        assertTrue(itemsOf(kitchenOrder, Station.FRYER).isEmpty());
+        assertFalse(itemsOf(kitchenOrder, Station.GRILL).isEmpty());
+
+        kitchenService.markOrderAsReady(kitchenOrder.getId());
+        assertTrue(itemsOf(kitchenOrder, Station.GRILL).isEmpty());
+    }
+
+    private List<StationItem> itemsOf(KitchenOrder kitchenOrder, Station station) {
+        return kitchenService.getStationQueue(station).stream()
+            .filter(item -> item.kitchenOrderId().equals(kitchenOrder.getId()))
+            .toList();
+    }
+
+    private Dish dish(String name) {
+        return dishService.getAllDishes().stream()
+            .filter(dish -> dish.getName().equals(name))
+            .findFirst()
+            .orElseThrow();
+    }
+}
@@ -0,0 +1,64 @@
+package com.restaurant.order.service;
+
+import com.restaurant.order.model.Order;
+import com.restaurant.order.model.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Status vindos da cozinha pela outbox: avançam no caminho normal e respeitam os estados finais
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class KitchenStatusSyncTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private KitchenService kitchenService;
+
+    @Test
+    void forwardPathCatchesUpAndIgnoresRegressions() {
+        Long id = orderService.createOrder(new Order(51, "Mesa 51", OrderStatus.NEW)).getId();
+
+        assertTrue(orderService.applyKitchenStatus(id, OrderStatus.READY));
+        assertFalse(orderService.applyKitchenStatus(id, OrderStatus.PREPARING));
+        assertEquals(OrderStatus.READY, status(id));
+    }
+
+    @Test
+    void cancellationDoesNotOverwriteFinishedOrders() {
+        Long paid = orderService.createOrder(new Order(52, "Mesa 52", OrderStatus.NEW)).getId();
+        assertTrue(orderService.applyKitchenStatus(paid, OrderStatus.DELIVERED));
+        assertFalse(orderService.applyKitchenStatus(paid, OrderStatus.CANCELLED));
+        orderService.updateOrderStatus(paid, OrderStatus.PAID);
+        assertFalse(orderService.applyKitchenStatus(paid, OrderStatus.CANCELLED));
+        assertEquals(OrderStatus.PAID, status(paid));
+
+        Long cancelled = orderService.createOrder(new Order(53, "Mesa 53", OrderStatus.NEW)).getId();
+        assertTrue(orderService.applyKitchenStatus(cancelled, OrderStatus.CANCELLED));
+        assertFalse(orderService.applyKitchenStatus(cancelled, OrderStatus.DELIVERED));
+        assertEquals(OrderStatus.CANCELLED, status(cancelled));
+    }
+
+    @Test
+    void kitchenCancellationReachesTheOrder() throws InterruptedException {
+        Long id = orderService.createOrder(new Order(54, "Mesa 54", OrderStatus.NEW)).getId();
+        orderService.updateOrderStatus(id, OrderStatus.PREPARING);
+
+        kitchenService.cancelOrder(kitchenService.getKitchenOrderByOrderId(id).orElseThrow().getId());
+
+        // O OutboxDispatcher aplica a mensagem na própria thread
+        for (int attempt = 0; attempt < 50 && status(id) != OrderStatus.CANCELLED; attempt++) {
+            Thread.sleep(100);
+        }
+        assertEquals(OrderStatus.CANCELLED, status(id));
+    }
+
+    private OrderStatus status(Long id) {
+        return orderService.getOrderById(id).orElseThrow().getStatus();
+    }
+}
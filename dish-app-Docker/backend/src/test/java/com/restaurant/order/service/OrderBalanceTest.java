@@ -0,0 +1,107 @@
+package com.restaurant.order.service;
+
+import com.restaurant.order.model.Money;
+import com.restaurant.order.model.Order;
+import com.restaurant.order.model.OrderBalance;
+import com.restaurant.order.model.OrderItem;
+import com.restaurant.order.model.OrderStatus;
+import com.restaurant.order.model.Payment.PaymentMethod;
+import com.restaurant.order.model.Payment.PaymentStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Conta dividida em vários pagamentos: o saldo acompanha o total do pedido, conclusões e estornos
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class OrderBalanceTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private OrderBalanceService orderBalanceService;
+
+    @Test
+    void splitBillIsTrackedAcrossPayments() {
+        Long orderId = orderService.createOrder(new Order(12, "Mesa 12", OrderStatus.NEW)).getId();
+        orderService.addItemToOrder(orderId, new OrderItem(1L, "Pizza Margherita", 2, Money.of("30.00")));
+        assertBalance(orderId, "60.00", "0.00", "60.00", false);
+
+        Long first = paymentService.createPayment(orderId, Money.of("20.00"), PaymentMethod.PIX).getId();
+        Long second = paymentService.createPayment(orderId, Money.of("20.00"), PaymentMethod.CASH).getId();
+        Long third = paymentService.createPayment(orderId, Money.of("20.00"), PaymentMethod.DEBIT_CARD).getId();
+
+        paymentService.processPixPayment(first, "tx-a", "caixa");
+        paymentService.processCashPayment(second, Money.of("20.00"), "caixa");
+        assertBalance(orderId, "60.00", "40.00", "20.00", false);
+
+        paymentService.processCardPayment(third, "tx-b", "1234", "caixa");
+        assertBalance(orderId, "60.00", "60.00", "0.00", true);
+        assertTrue(paymentService.isOrderFullyPaid(orderId));
+
+        paymentService.updatePaymentStatus(second, PaymentStatus.REFUNDED);
+        assertBalance(orderId, "60.00", "40.00", "20.00", false);
+
+        // Item novo no pedido aumenta o valor devido
+        orderService.addItemToOrder(orderId, new OrderItem(2L, "Refrigerante", 1, Money.of("6.50")));
+        assertBalance(orderId, "66.50", "40.00", "26.50", false);
+        assertFalse(paymentService.isOrderFullyPaid(orderId));
+    }
+
+    @Test
+    void deletedOrderTakesItsBalanceAlong() {
+        Long orderId = orderService.createOrder(new Order(13, "Mesa 13", OrderStatus.NEW)).getId();
+        assertTrue(paymentService.getOrderBalance(orderId).isPresent());
+
+        orderService.deleteOrder(orderId);
+        assertFalse(paymentService.getOrderBalance(orderId).isPresent());
+    }
+
+    // Vários primeiros pagamentos de um pedido sem saldo: um abre a linha, os outros somam nela
+    @Test
+    void concurrentFirstPaymentsOpenOneBalance() throws Exception {
+        Long orderId = 987_654L;
+        int payers = 8;
+        ExecutorService pool = Executors.newFixedThreadPool(payers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> payments = new ArrayList<>();
+        for (int i = 0; i < payers; i++) {
+            payments.add(pool.submit(() -> {
+                start.await();
+                orderBalanceService.applyPayment(orderId, null, Money.of("10.00"));
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> payment : payments) {
+            payment.get();
+        }
+        pool.shutdown();
+
+        OrderBalance balance = paymentService.getOrderBalance(orderId).orElseThrow();
+        assertEquals(Money.of("80.00"), balance.getPaid());
+        assertEquals(payers, balance.getPaymentCount());
+    }
+
+    private void assertBalance(Long orderId, String due, String paid, String remaining, boolean fullyPaid) {
+        OrderBalance balance = paymentService.getOrderBalance(orderId).orElseThrow();
+        assertEquals(Money.of(due), balance.getDue());
+        assertEquals(Money.of(paid), balance.getPaid());
+        assertEquals(Money.of(remaining), balance.getRemaining());
+        assertEquals(fullyPaid, balance.isFullyPaid());
+    }
+}
@@ -0,0 +1,86 @@
+package com.restaurant.order.service;
+
+import com.restaurant.order.controller.OrderController;
+import com.restaurant.order.model.Money;
+import com.restaurant.order.model.Order;
+import com.restaurant.order.model.OrderItem;
+import com.restaurant.order.model.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+// 50 garçons adicionando o mesmo prato no mesmo pedido ao mesmo tempo: nenhuma adição pode se perder
+@SpringBootTest(properties = {
+    "concurrency.retry.max-attempts=100",
+    "spring.jpa.show-sql=false"
+})
+class OrderContentionTest {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderContentionTest.class);
+
+    private static final int WRITERS = 50;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderController orderController;
+    
+    @Autowired
+    private ConflictRetrier conflictRetrier;
+
+    @Test
+    void concurrentItemAddsAreNotLost() throws Exception {
+        Long orderId = orderService.createOrder(new Order(7, "Mesa 7", OrderStatus.NEW)).getId();
+        Map<String, Long> before = conflictRetrier.getStats();
+
+        ExecutorService pool = Executors.newFixedThreadPool(WRITERS);
+        CountDownLatch start = new CountDownLatch(1);
+        // Mesmo corpo de requisição para todos, como o Jackson entregaria ao controller; as novas tentativas não podem sujá-lo
+        OrderItem request = new OrderItem(1L, "Pizza Margherita", 1, Money.of("25.90"));
+        List<Future<ResponseEntity<Order>>> adds = new ArrayList<>();
+        for (int i = 0; i < WRITERS; i++) {
+            adds.add(pool.submit(() -> {
+                start.await();
+                return orderController.addItemToOrder(orderId, request);
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<ResponseEntity<Order>> add : adds) {
+            assertEquals(HttpStatus.OK, add.get().getStatusCode());
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        pool.shutdown();
+
+        Order order = orderService.getOrderById(orderId).orElseThrow();
+        assertEquals(1, order.getItems().size());
+        assertEquals(WRITERS, order.getQuantityOfDish(1L));
+        assertEquals(Money.of("25.90").times(WRITERS), order.getTotalAmount());
+        assertNull(request.getId());
+        assertNull(request.getOrder());
+
+        Map<String, Long> after = conflictRetrier.getStats();
+        log.debug("Contenção: {} adições em {} ms, conflitos={}, novas tentativas={}, versão final={}",
+            WRITERS, elapsedNanos / 1_000_000,
+            after.get("conflicts") - before.get("conflicts"),
+            after.get("retries") - before.get("retries"),
+            order.getVersion());
+    }
+}
@@ -0,0 +1,69 @@
+package com.restaurant.order.service;
+
+import com.restaurant.order.dto.PrepTimeReport;
+import com.restaurant.order.model.KitchenOrder;
+import com.restaurant.order.model.KitchenOrderItem;
+import com.restaurant.order.model.Money;
+import com.restaurant.order.model.OrderStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PrepTimeAnalyticsTest {
+
+    private static final LocalDateTime LUNCH = LocalDateTime.of(2024, 5, 10, 12, 0);
+
+    private final PrepTimeAnalytics analytics = new PrepTimeAnalytics();
+
+    @Test
+    void slowestDishComesFirst() {
+        // Lasanha sai em 20 minutos; salada em 5, mesmo quando divide a comanda com a lasanha
+        analytics.record(readyOrder(LUNCH, 20, dish(1L, "Lasanha"), dish(2L, "Salada")));
+        analytics.record(readyOrder(LUNCH.plusMinutes(10), 5, dish(2L, "Salada")));
+        analytics.record(readyOrder(LUNCH.plusHours(7), 5, dish(2L, "Salada")));
+
+        PrepTimeReport report = analytics.getReport(1);
+
+        assertEquals(3, report.overall().count());
+        assertEquals(1200, report.overall().max());
+        assertEquals(1L, report.byDish().get(0).dishId());
+        assertEquals(1200, report.byDish().get(0).prepSeconds().p50());
+        assertEquals(3, report.byDish().get(1).prepSeconds().count());
+        assertEquals(300, report.byDish().get(1).prepSeconds().p50());
+
+        assertEquals(2, report.byHour().size());
+        assertEquals(12, report.byHour().get(0).hour());
+        assertEquals(2, report.byHour().get(0).prepSeconds().count());
+        assertEquals(19, report.byHour().get(1).hour());
+
+        // Pratos com menos amostras que o mínimo ficam de fora
+        assertEquals(1, analytics.getReport(2).byDish().size());
+    }
+
+    @Test
+    void ordersWithoutStartAreIgnored() {
+        KitchenOrder skipped = new KitchenOrder(1L, 3, "Mesa 3", OrderStatus.NEW);
+        skipped.addItem(dish(1L, "Lasanha"));
+        skipped.setStatus(OrderStatus.READY);
+
+        analytics.record(skipped);
+
+        assertEquals(0, analytics.getReport(1).overall().count());
+    }
+
+    private static KitchenOrder readyOrder(LocalDateTime startedAt, int minutes, KitchenOrderItem... items) {
+        KitchenOrder order = new KitchenOrder(1L, 3, "Mesa 3", OrderStatus.PREPARING);
+        for (KitchenOrderItem item : items) {
+            order.addItem(item);
+        }
+        order.setStartedAt(startedAt);
+        order.setReadyAt(startedAt.plusMinutes(minutes));
+        return order;
+    }
+
+    private static KitchenOrderItem dish(Long dishId, String name) {
+        return new KitchenOrderItem(dishId, name, null, 1, Money.of("30.00"), 15);
+    }
+}
@@ -0,0 +1,64 @@
+package com.restaurant.order.service;
+
+import com.restaurant.order.model.KitchenOrder;
+import com.restaurant.order.model.Money;
+import com.restaurant.order.model.Order;
+import com.restaurant.order.model.OrderItem;
+import com.restaurant.order.model.OrderStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Transições, fila da cozinha e timers de serviço aparecem no registro depois de um ciclo de pedido
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class RestaurantMetricsTest {
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private KitchenService kitchenService;
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Test
+    void orderLifecycleIsCounted() {
+        double sentToKitchen = transitions("order", "NEW", "PREPARING");
+        double kitchenReady = transitions("kitchen", "PREPARING", "READY");
+
+        Long orderId = orderService.createOrder(new Order(21, "Mesa 21", OrderStatus.NEW)).getId();
+        orderService.addItemToOrder(orderId, new OrderItem(1L, "Pizza Margherita", 1, Money.of("30.00")));
+        orderService.updateOrderStatus(orderId, OrderStatus.PREPARING);
+
+        KitchenOrder kitchenOrder = kitchenService.getKitchenOrderByOrderId(orderId).orElseThrow();
+        double preparing = queue("PREPARING");
+        assertTrue(preparing >= 1);
+
+        kitchenService.markOrderAsReady(kitchenOrder.getId());
+
+        assertEquals(sentToKitchen + 1, transitions("order", "NEW", "PREPARING"));
+        assertEquals(kitchenReady + 1, transitions("kitchen", "PREPARING", "READY"));
+        assertEquals(preparing - 1, queue("PREPARING"));
+        assertNotNull(registry.find("restaurant.service")
+            .tag("class", OrderService.class.getName())
+            .tag("method", "updateOrderStatus")
+            .timer());
+    }
+
+    private double transitions(String source, String from, String to) {
+        return registry.get("restaurant.status.transitions")
+            .tags("source", source, "from", from, "to", to)
+            .counter()
+            .count();
+    }
+
+    private double queue(String status) {
+        return registry.get("restaurant.kitchen.queue").tag("status", status).gauge().value();
+    }
+}
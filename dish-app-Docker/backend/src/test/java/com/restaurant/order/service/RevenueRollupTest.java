@@ -0,0 +1,101 @@
+package com.restaurant.order.service;
+
+import com.restaurant.order.dto.RevenueReport;
+import com.restaurant.order.model.Money;
+import com.restaurant.order.model.Payment;
+import com.restaurant.order.model.Payment.PaymentMethod;
+import com.restaurant.order.model.Payment.PaymentStatus;
+import com.restaurant.order.repository.PaymentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Os relatórios montados pelos buckets por hora precisam bater com as somas direto na tabela payments
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+class RevenueRollupTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2020, 3, 10, 0, 0);
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @BeforeEach
+    void seedPayments() {
+        if (!paymentRepository.getRevenueCentsByPaymentMethod(DAY, DAY.plusDays(1)).isEmpty()) {
+            return;
+        }
+        Long cash = payment(9, 15, "40.00", PaymentMethod.CASH);
+        paymentService.processCashPayment(cash, Money.of("50.00"), "ana");
+
+        Long pixOnTheHour = payment(10, 0, "12.50", PaymentMethod.PIX);
+        paymentService.processPixPayment(pixOnTheHour, "tx-1", "bruno");
+
+        Long card = payment(10, 45, "99.90", PaymentMethod.CREDIT_CARD);
+        paymentService.processCardPayment(card, "tx-2", "4242", "ana");
+        // Concluir de novo não pode contar duas vezes
+        paymentService.updatePaymentStatus(card, PaymentStatus.COMPLETED);
+
+        Long refunded = payment(11, 30, "30.00", PaymentMethod.DEBIT_CARD);
+        paymentService.processCardPayment(refunded, "tx-3", "1111", "bruno");
+        paymentService.updatePaymentStatus(refunded, PaymentStatus.REFUNDED);
+
+        Long deleted = payment(11, 40, "18.00", PaymentMethod.PIX);
+        paymentService.processPixPayment(deleted, "tx-4", "ana");
+        paymentService.deletePayment(deleted);
+
+        Long withoutOperator = payment(12, 0, "7.25", PaymentMethod.CASH);
+        paymentService.updatePaymentStatus(withoutOperator, PaymentStatus.COMPLETED);
+
+        payment(12, 30, "60.00", PaymentMethod.PIX);
+    }
+
+    @Test
+    void reportsMatchDirectQueries() {
+        assertMatches(DAY.withHour(9), DAY.withHour(13));
+        assertMatches(DAY.withHour(9).withMinute(20), DAY.withHour(11).withMinute(45));
+        assertMatches(DAY.withHour(10), DAY.withHour(12));
+        assertMatches(DAY.withHour(10).withMinute(10), DAY.withHour(10).withMinute(50));
+        assertMatches(DAY.withHour(12), DAY.withHour(12));
+        assertMatches(DAY, DAY.plusDays(1));
+    }
+
+    @Test
+    void groupsByOperator() {
+        RevenueReport report = paymentService.getRevenueReport(DAY, DAY.plusDays(1));
+
+        assertEquals(Money.of("139.90"), report.revenueByProcessedBy().get("ana"));
+        assertEquals(Money.of("12.50"), report.revenueByProcessedBy().get("bruno"));
+        assertEquals(Money.of("7.25"), report.revenueByProcessedBy().get(""));
+        assertEquals(4, report.completedPayments());
+    }
+
+    private void assertMatches(LocalDateTime start, LocalDateTime end) {
+        RevenueReport report = paymentService.getRevenueReport(start, end);
+        String range = start + " a " + end;
+
+        assertEquals(Money.ofCents(paymentRepository.getTotalRevenueCentsByDateRange(start, end)), report.totalRevenue(), range);
+        assertEquals(paymentRepository.countCompletedPaymentsByDateRange(start, end), report.completedPayments(), range);
+
+        Map<PaymentMethod, Money> expectedByMethod = new EnumMap<>(PaymentMethod.class);
+        for (Object[] row : paymentRepository.getRevenueCentsByPaymentMethod(start, end)) {
+            expectedByMethod.put(PaymentMethod.valueOf(row[0].toString()), Money.ofCents(((Number) row[1]).longValue()));
+        }
+        assertEquals(expectedByMethod, report.revenueByMethod(), range);
+    }
+
+    private Long payment(int hour, int minute, String amount, PaymentMethod method) {
+        Payment payment = new Payment(900L + hour, Money.of(amount), method);
+        payment.setCreatedAt(DAY.withHour(hour).withMinute(minute));
+        return paymentRepository.save(payment).getId();
+    }
+}
@@ -0,0 +1,43 @@
+package com.restaurant.order.service;
+
+import com.restaurant.order.dto.TableStatus;
+import com.restaurant.order.model.Order;
+import com.restaurant.order.model.OrderStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Mesa fora do salão: o pedido é aceito e aparece no mapa sem crescer o array das mesas
+@SpringBootTest(properties = {
+    "spring.jpa.show-sql=false",
+    "floor.table-count=60"
+})
+class TableStatusIndexTest {
+
+    private static final int FAR_TABLE = 100_000_000;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private TableStatusIndex tableStatusIndex;
+
+    @Test
+    void tablesOutsideTheFloorAreListedWhileActive() {
+        Long orderId = orderService.createOrder(new Order(FAR_TABLE, "Evento", OrderStatus.NEW)).getId();
+
+        List<TableStatus> tables = tableStatusIndex.getAllTables();
+        TableStatus far = tables.get(tables.size() - 1);
+        assertEquals(FAR_TABLE, far.tableNumber());
+        assertEquals(List.of(orderId), far.orderIds());
+        assertEquals(60, tables.stream().filter(table -> table.tableNumber() <= 60).count());
+
+        orderService.updateOrderStatus(orderId, OrderStatus.CANCELLED);
+        assertTrue(tableStatusIndex.getAllTables().stream().noneMatch(table -> table.tableNumber() == FAR_TABLE));
+    }
+}
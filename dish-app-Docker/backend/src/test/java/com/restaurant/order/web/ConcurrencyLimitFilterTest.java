@@ -0,0 +1,49 @@
+package com.restaurant.order.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Exportação assíncrona segura a vaga até o fim do processamento, não só até o filtro retornar
+class ConcurrencyLimitFilterTest {
+
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(filter, "dataSource", new DriverManagerDataSource());
+        ReflectionTestUtils.setField(filter, "environment", new MockEnvironment());
+        ReflectionTestUtils.setField(filter, "maxConcurrent", 1);
+        ReflectionTestUtils.setField(filter, "queueTimeoutMs", 0L);
+        ReflectionTestUtils.setField(filter, "retryAfterSeconds", 1);
+        filter.init();
+    }
+
+    @Test
+    void asyncRequestHoldsPermitUntilComplete() throws Exception {
+        MockHttpServletRequest export = new MockHttpServletRequest("GET", "/orders/stream");
+        export.setAsyncSupported(true);
+        filter.doFilter(export, new MockHttpServletResponse(), (req, res) -> req.startAsync());
+        assertEquals(1, filter.getStats().get("inUse"));
+
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/orders"), rejected, (req, res) -> { });
+        assertEquals(503, rejected.getStatus());
+
+        ((MockAsyncContext) export.getAsyncContext()).complete();
+        assertEquals(0, filter.getStats().get("inUse"));
+    }
+
+    @Test
+    void syncRequestReleasesPermitOnReturn() throws Exception {
+        filter.doFilter(new MockHttpServletRequest("GET", "/orders"), new MockHttpServletResponse(), (req, res) -> { });
+        assertEquals(0, filter.getStats().get("inUse"));
+    }
+}
@@ -0,0 +1,63 @@
+package com.restaurant.order.web;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// Corpos acima do limite não são lidos para a memória nem chegam ao controller
+class IdempotencyKeyFilterTest {
+
+    private final IdempotencyKeyFilter filter = new IdempotencyKeyFilter();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(filter, "maxBodyBytes", 16);
+    }
+
+    @Test
+    void rejectsDeclaredLengthAboveLimit() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/orders") {
+            @Override
+            public long getContentLengthLong() {
+                return 1_000_000L;
+            }
+        };
+        assertRejected(post(request, new byte[8]));
+    }
+
+    // Corpo chunked (sem Content-Length) maior que o limite
+    @Test
+    void rejectsBodyAboveLimitWithoutContentLength() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/orders") {
+            @Override
+            public long getContentLengthLong() {
+                return -1L;
+            }
+        };
+        assertRejected(post(request, new byte[64]));
+    }
+
+    private static MockHttpServletRequest post(MockHttpServletRequest request, byte[] body) {
+        request.setServletPath("/orders");
+        request.addHeader(IdempotencyKeyFilter.HEADER, "key-1");
+        request.setContent(body);
+        return request;
+    }
+
+    private void assertRejected(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicBoolean reached = new AtomicBoolean();
+
+        filter.doFilter(request, response, (req, res) -> reached.set(true));
+
+        assertEquals(413, response.getStatus());
+        assertFalse(reached.get());
+    }
+}